@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc;
+
+import com.google.cloud.spanner.r2dbc.client.Client;
+import com.google.spanner.v1.PartialResultSet;
+import com.google.spanner.v1.Session;
+import com.google.spanner.v1.Transaction;
+import io.grpc.StatusException;
+import io.grpc.StatusRuntimeException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * A read-write transaction that is begun by the first statement executed in it, instead of by a
+ * separate {@code BeginTransaction} call.
+ *
+ * <p>The first statement claims the begin and sends its query with a {@code begin} transaction
+ * selector. The transaction returned in the metadata of its first {@link PartialResultSet}
+ * resolves {@link #getTransaction()} for all later statements and for commit or rollback.
+ *
+ * <p>If the statement fails on the client before its request is handed to gRPC, the transaction
+ * is begun explicitly instead. Once the request may have reached Spanner, a transaction may exist
+ * there that the statement ran in, so no other one is begun: if the statement is cancelled or
+ * fails without returning the transaction, the transaction fails and must be retried.
+ */
+class InlineBeginTransaction {
+
+  private final Client client;
+
+  private final Session session;
+
+  private final AtomicBoolean beginClaimed = new AtomicBoolean();
+
+  private final AtomicBoolean resolved = new AtomicBoolean();
+
+  private final MonoProcessor<Transaction> transaction = MonoProcessor.create();
+
+  InlineBeginTransaction(Client client, Session session) {
+    this.client = client;
+    this.session = session;
+  }
+
+  /**
+   * Claims the right to begin the transaction. Only the first caller succeeds.
+   * @return {@code true} if the caller must begin the transaction
+   */
+  boolean claimBegin() {
+    return this.beginClaimed.compareAndSet(false, true);
+  }
+
+  /**
+   * Returns the transaction, which resolves once the statement that began it has returned it.
+   * @return {@link Mono} of the transaction
+   */
+  Mono<Transaction> getTransaction() {
+    return this.transaction;
+  }
+
+  /**
+   * Executes the statement that begins the transaction. Must only be called after a successful
+   * {@link #claimBegin()}.
+   * @param sql the query to execute
+   * @return {@link Flux} of the partial results of the query
+   */
+  Flux<PartialResultSet> executeStreamingSql(String sql) {
+    return this.client.beginTransactionAndExecuteStreamingSql(this.session, sql)
+        .doOnNext(partialResultSet -> {
+          if (partialResultSet.getMetadata().hasTransaction()
+              && this.resolved.compareAndSet(false, true)) {
+            this.transaction.onNext(partialResultSet.getMetadata().getTransaction());
+          }
+        })
+        .doOnError(e -> {
+          if (this.resolved.compareAndSet(false, true)) {
+            if (failedBeforeSending(e)) {
+              Mono.defer(() -> this.client.beginTransaction(this.session))
+                  .subscribe(this.transaction);
+            } else {
+              this.transaction.onError(notBegun(e));
+            }
+          }
+        })
+        .doFinally(signal -> {
+          // cancelled, or completed without returning the transaction
+          if (this.resolved.compareAndSet(false, true)) {
+            this.transaction.onError(notBegun(null));
+          }
+        });
+  }
+
+  /**
+   * Returns whether the statement failed on the client, before its request was handed to gRPC.
+   * Errors reported by gRPC may come from a server that already began the transaction.
+   */
+  private static boolean failedBeforeSending(Throwable error) {
+    return !(error instanceof StatusRuntimeException) && !(error instanceof StatusException);
+  }
+
+  private static IllegalStateException notBegun(Throwable cause) {
+    return new IllegalStateException("The statement beginning the transaction did not return "
+        + "the transaction; the transaction must be retried.", cause);
+  }
+}
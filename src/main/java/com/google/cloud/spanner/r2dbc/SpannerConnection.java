@@ -17,6 +17,9 @@
 package com.google.cloud.spanner.r2dbc;
 
 import com.google.cloud.spanner.r2dbc.client.Client;
+import com.google.cloud.spanner.r2dbc.client.SessionPool;
+import com.google.cloud.spanner.r2dbc.client.SessionPool.PreparedSession;
+import com.google.cloud.spanner.r2dbc.codecs.DefaultCodecs;
 import com.google.spanner.v1.Session;
 import com.google.spanner.v1.Transaction;
 import io.r2dbc.spi.Batch;
@@ -37,49 +40,138 @@ public class SpannerConnection implements Connection {
 
   private final Client client;
 
-  private final Session session;
+  private final SessionPool sessionPool;
+
+  private volatile Session session;
+
+  private Mono<Session> sessionReplacement;
 
   private Mono<Transaction> currentTransaction;
 
+  private InlineBeginTransaction inlineTransaction;
+
+  private boolean transactionActive;
+
+  private final int resultPrefetch;
+
+  private final DefaultCodecs codecs;
+
   /**
    * Instantiates a Spanner session with given configuration.
    * @param client client controlling low-level Spanner operations
    * @param session Spanner session to use for all interactions on this connection.
    */
   public SpannerConnection(Client client, Session session) {
+    this(client, session, null);
+  }
+
+  /**
+   * Instantiates a connection on a pooled Spanner session.
+   * @param client client controlling low-level Spanner operations
+   * @param session Spanner session to use for all interactions on this connection.
+   * @param sessionPool pool the session is returned to when the connection is closed, or
+   *     {@code null} to delete the session instead.
+   */
+  public SpannerConnection(Client client, Session session, SessionPool sessionPool) {
+    this(client, session, sessionPool, SpannerStatement.DEFAULT_RESULT_PREFETCH);
+  }
+
+  /**
+   * Instantiates a connection on a pooled Spanner session.
+   * @param client client controlling low-level Spanner operations
+   * @param session Spanner session to use for all interactions on this connection.
+   * @param sessionPool pool the session is returned to when the connection is closed, or
+   *     {@code null} to delete the session instead.
+   * @param resultPrefetch number of partial result sets statements request ahead of the rows
+   *     consumed.
+   */
+  public SpannerConnection(
+      Client client, Session session, SessionPool sessionPool, int resultPrefetch) {
+    this(client, session, sessionPool, resultPrefetch, null);
+  }
+
+  /**
+   * Instantiates a connection on a pooled Spanner session.
+   * @param client client controlling low-level Spanner operations
+   * @param session Spanner session to use for all interactions on this connection.
+   * @param sessionPool pool the session is returned to when the connection is closed, or
+   *     {@code null} to delete the session instead.
+   * @param resultPrefetch number of partial result sets statements request ahead of the rows
+   *     consumed.
+   * @param codecs codecs decoding the rows of results, or {@code null} for the built-in codecs.
+   */
+  public SpannerConnection(Client client, Session session, SessionPool sessionPool,
+      int resultPrefetch, DefaultCodecs codecs) {
     this.client = client;
     this.session = session;
+    this.sessionPool = sessionPool;
+    this.resultPrefetch = resultPrefetch;
+    this.codecs = codecs;
     this.currentTransaction = Mono.empty();
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>If the pool has a write-prepared session, the connection switches to it and releases its
+   * own session, so the transaction already begun on it is used. Otherwise no call is made to
+   * Spanner here; the transaction is begun by the first statement executed in it.
+   */
   @Override
   public Publisher<Void> beginTransaction() {
     return Mono.defer(() -> {
-      currentTransaction = client.beginTransaction(session).cache();
-      return currentTransaction.then();
+      PreparedSession preparedSession = this.sessionPool == null
+          ? null
+          : this.sessionPool.takePreparedSession();
+      if (preparedSession == null) {
+        inlineTransaction = new InlineBeginTransaction(client, session);
+        currentTransaction = inlineTransaction.getTransaction();
+        transactionActive = true;
+        return Mono.empty();
+      }
+
+      Session previousSession;
+      synchronized (this) {
+        previousSession = this.session;
+        this.session = preparedSession.getSession();
+      }
+      currentTransaction = Mono.just(preparedSession.getTransaction());
+      transactionActive = true;
+      return this.sessionPool.release(previousSession);
     });
   }
 
   @Override
   public Publisher<Void> commitTransaction() {
-    return currentTransaction
+    return Mono.defer(this::transactionToEnd)
         .flatMap(transaction -> client.commitTransaction(session, transaction))
-        .switchIfEmpty(Mono.fromRunnable(() ->
-            logger.warn("commitTransaction() is a no-op; called with no transaction active.")))
-        .then();
+        .switchIfEmpty(Mono.fromRunnable(() -> {
+          if (!transactionActive) {
+            logger.warn("commitTransaction() is a no-op; called with no transaction active.");
+          }
+        }))
+        .then()
+        .doFinally(signal -> endTransaction());
   }
 
   @Override
   public Publisher<Void> rollbackTransaction() {
-    return currentTransaction
+    return Mono.defer(this::transactionToEnd)
         .flatMap(transaction -> client.rollbackTransaction(session, transaction))
-        .switchIfEmpty(Mono.fromRunnable(() ->
-            logger.warn("rollbackTransaction() is a no-op; called with no transaction active.")))
-        .then();
+        .switchIfEmpty(Mono.fromRunnable(() -> {
+          if (!transactionActive) {
+            logger.warn("rollbackTransaction() is a no-op; called with no transaction active.");
+          }
+        }))
+        .then()
+        .doFinally(signal -> endTransaction());
   }
 
   @Override
   public Publisher<Void> close() {
+    if (this.sessionPool != null) {
+      return this.sessionPool.release(this.session);
+    }
     return client.deleteSession(session);
   }
 
@@ -95,7 +187,9 @@ public class SpannerConnection implements Connection {
 
   @Override
   public Statement createStatement(String sql) {
-    return new SpannerStatement(this.client, this.session, this.currentTransaction, sql);
+    return new SpannerStatement(this.client, this.session, this.currentTransaction, sql,
+        this.sessionPool == null ? null : this::replaceSession, this.inlineTransaction,
+        this.resultPrefetch, this.codecs);
   }
 
   @Override
@@ -113,6 +207,57 @@ public class SpannerConnection implements Connection {
     return null;
   }
 
+  /**
+   * Returns the transaction to commit or roll back. A transaction meant to be begun inline that
+   * no statement has begun yet does not exist on Spanner, so there is nothing to end.
+   */
+  private Mono<Transaction> transactionToEnd() {
+    if (this.inlineTransaction != null && this.inlineTransaction.claimBegin()) {
+      return Mono.empty();
+    }
+    return this.currentTransaction;
+  }
+
+  private void endTransaction() {
+    this.currentTransaction = Mono.empty();
+    this.inlineTransaction = null;
+    this.transactionActive = false;
+  }
+
+  /**
+   * Swaps the connection's session for a fresh pooled session after Spanner reported that
+   * {@code expiredSession} no longer exists.
+   *
+   * <p>Concurrent statements failing on the same expired session share a single replacement.
+   *
+   * @param expiredSession the session for which "Session not found" was reported
+   * @return {@link Mono} of the session the connection uses from now on
+   */
+  private Mono<Session> replaceSession(Session expiredSession) {
+    synchronized (this) {
+      if (this.sessionReplacement == null) {
+        if (!this.session.equals(expiredSession)) {
+          return Mono.just(this.session);
+        }
+
+        this.sessionReplacement = this.sessionPool.replace(expiredSession)
+            .doOnNext(newSession -> {
+              synchronized (this) {
+                this.session = newSession;
+                this.sessionReplacement = null;
+              }
+            })
+            .doOnError(e -> {
+              synchronized (this) {
+                this.sessionReplacement = null;
+              }
+            })
+            .cache();
+      }
+      return this.sessionReplacement;
+    }
+  }
+
   /**
    * Returns the Spanner session associated with the current {@link Connection}.
    * @return spanner session proto
@@ -17,8 +17,19 @@
 package com.google.cloud.spanner.r2dbc;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.spanner.r2dbc.client.ChannelSelection;
+import com.google.cloud.spanner.r2dbc.client.GrpcClient;
+import com.google.cloud.spanner.r2dbc.codecs.Codec;
+import com.google.cloud.spanner.r2dbc.codecs.DefaultCodecs;
 import com.google.cloud.spanner.r2dbc.util.Assert;
+import io.grpc.netty.shaded.io.netty.channel.Channel;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * Configurable properties for Cloud Spanner.
@@ -28,10 +39,86 @@ public class SpannerConnectionConfiguration {
   private static final String FULLY_QUALIFIED_DB_NAME_PATTERN
       = "projects/%s/instances/%s/databases/%s";
 
+  public static final String DEFAULT_HOST = GrpcClient.HOST;
+
+  public static final int DEFAULT_PORT = GrpcClient.PORT;
+
+  public static final int DEFAULT_MIN_SESSIONS = 0;
+
+  public static final int DEFAULT_MAX_SESSIONS = 100;
+
+  public static final int DEFAULT_MAX_SESSION_WAITERS = 1000;
+
+  public static final Duration DEFAULT_SESSION_ACQUIRE_TIMEOUT = Duration.ofSeconds(30);
+
+  public static final int DEFAULT_MAX_IDLE_SESSIONS = 10;
+
+  public static final Duration DEFAULT_SESSION_MAINTENANCE_INTERVAL = Duration.ofSeconds(10);
+
+  public static final Duration DEFAULT_SESSION_KEEP_ALIVE_INTERVAL = Duration.ofMinutes(30);
+
+  public static final double DEFAULT_WRITE_SESSIONS_FRACTION = 0.2;
+
+  public static final int DEFAULT_NUM_CHANNELS = 4;
+
+  public static final ChannelSelection DEFAULT_CHANNEL_SELECTION =
+      ChannelSelection.LEAST_IN_FLIGHT;
+
+  public static final int DEFAULT_RESULT_PREFETCH = SpannerStatement.DEFAULT_RESULT_PREFETCH;
+
+  public static final int DEFAULT_FLOW_CONTROL_WINDOW = 1024 * 1024;
+
+  // large result set chunks must not be rejected; the Cloud Spanner client libraries do the same
+  public static final int DEFAULT_MAX_INBOUND_MESSAGE_SIZE = Integer.MAX_VALUE;
+
   private final String fullyQualifiedDbName;
 
   private final GoogleCredentials credentials;
 
+  private final String host;
+
+  private final int port;
+
+  private final boolean usePlaintext;
+
+  private final int minSessions;
+
+  private final int maxSessions;
+
+  private final int maxSessionWaiters;
+
+  private final Duration sessionAcquireTimeout;
+
+  private final int maxIdleSessions;
+
+  private final Duration sessionMaintenanceInterval;
+
+  private final Duration sessionKeepAliveInterval;
+
+  private final double writeSessionsFraction;
+
+  private final int numChannels;
+
+  private final ChannelSelection channelSelection;
+
+  private final EventLoopGroup eventLoopGroup;
+
+  private final Class<? extends Channel> channelType;
+
+  private final Executor executor;
+
+  private final int flowControlWindow;
+
+  private final int maxInboundMessageSize;
+
+  private final boolean useDirectExecutor;
+
+  private final Scheduler resultScheduler;
+
+  private final int resultPrefetch;
+
+  private final DefaultCodecs codecs;
+
   /**
    * Basic property initializing constructor.
    *
@@ -39,20 +126,117 @@ public class SpannerConnectionConfiguration {
    * @param instanceName instance to connect to
    * @param databaseName database to connect to.
    * @param credentials GCP credentials to authenticate service calls with.
+   * @param host Spanner API host to connect to.
+   * @param port Spanner API port to connect to.
+   * @param usePlaintext whether to connect without TLS, and thus without credentials.
+   * @param minSessions number of sessions the session pool keeps open at all times.
+   * @param maxSessions maximum number of sessions the session pool may open.
+   * @param maxSessionWaiters maximum number of callers waiting for a session at once.
+   * @param sessionAcquireTimeout how long a caller waits for a session before failing.
+   * @param maxIdleSessions number of idle sessions above which the pool deletes unused sessions.
+   * @param sessionMaintenanceInterval how often the session pool maintenance runs.
+   * @param sessionKeepAliveInterval how long a session may sit idle before it is pinged.
+   * @param writeSessionsFraction fraction of pooled sessions with a read-write transaction begun
+   *     ahead of time.
+   * @param numChannels number of gRPC channels calls are spread over.
+   * @param channelSelection how a channel is picked for calls not bound to a session.
+   * @param eventLoopGroup Netty event loop group shared by the channels, or {@code null} for the
+   *     gRPC default.
+   * @param channelType Netty channel type matching {@code eventLoopGroup}, or {@code null} to
+   *     derive it from the group.
+   * @param executor executor running gRPC callbacks, or {@code null} for the gRPC default.
+   * @param flowControlWindow HTTP/2 flow control window of each channel, in bytes.
+   * @param maxInboundMessageSize largest message accepted from Spanner, in bytes.
+   * @param useDirectExecutor whether gRPC callbacks run directly on the network threads.
+   * @param resultScheduler scheduler call results are published on, or {@code null} to publish
+   *     them on the thread running the gRPC callback.
+   * @param resultPrefetch number of partial result sets requested ahead of the rows consumed.
+   * @param codecs codecs used in addition to the built-in ones, taking precedence over them.
    */
   private SpannerConnectionConfiguration(
       String projectId,
       String instanceName,
       String databaseName,
-      GoogleCredentials credentials) {
+      GoogleCredentials credentials,
+      String host,
+      int port,
+      boolean usePlaintext,
+      int minSessions,
+      int maxSessions,
+      int maxSessionWaiters,
+      Duration sessionAcquireTimeout,
+      int maxIdleSessions,
+      Duration sessionMaintenanceInterval,
+      Duration sessionKeepAliveInterval,
+      double writeSessionsFraction,
+      int numChannels,
+      ChannelSelection channelSelection,
+      EventLoopGroup eventLoopGroup,
+      Class<? extends Channel> channelType,
+      Executor executor,
+      int flowControlWindow,
+      int maxInboundMessageSize,
+      boolean useDirectExecutor,
+      Scheduler resultScheduler,
+      int resultPrefetch,
+      List<Codec<?>> codecs) {
 
     Assert.requireNonNull(projectId, "projectId must not be null");
     Assert.requireNonNull(instanceName, "instanceName must not be null");
     Assert.requireNonNull(databaseName, "databaseName must not be null");
+    Assert.requireNonNull(host, "host must not be null");
+    Assert.isTrue(port > 0 && port <= 65535, "port must be between 1 and 65535");
+    Assert.requireNonNull(sessionAcquireTimeout, "sessionAcquireTimeout must not be null");
+    Assert.requireNonNull(
+        sessionMaintenanceInterval, "sessionMaintenanceInterval must not be null");
+    Assert.requireNonNull(sessionKeepAliveInterval, "sessionKeepAliveInterval must not be null");
+    Assert.isTrue(minSessions >= 0, "minSessions must not be negative");
+    Assert.isTrue(maxSessions > 0, "maxSessions must be positive");
+    Assert.isTrue(minSessions <= maxSessions, "minSessions must not exceed maxSessions");
+    Assert.isTrue(maxSessionWaiters >= 0, "maxSessionWaiters must not be negative");
+    Assert.isTrue(maxIdleSessions >= 0, "maxIdleSessions must not be negative");
+    Assert.isTrue(!sessionMaintenanceInterval.isNegative() && !sessionMaintenanceInterval.isZero(),
+        "sessionMaintenanceInterval must be positive");
+    Assert.isTrue(!sessionKeepAliveInterval.isNegative() && !sessionKeepAliveInterval.isZero(),
+        "sessionKeepAliveInterval must be positive");
+    Assert.isTrue(writeSessionsFraction >= 0 && writeSessionsFraction <= 1,
+        "writeSessionsFraction must be between 0 and 1");
+    Assert.isTrue(numChannels > 0, "numChannels must be positive");
+    Assert.requireNonNull(channelSelection, "channelSelection must not be null");
+    Assert.isTrue(channelType == null || eventLoopGroup != null,
+        "channelType requires an eventLoopGroup");
+    Assert.isTrue(flowControlWindow > 0, "flowControlWindow must be positive");
+    Assert.isTrue(maxInboundMessageSize > 0, "maxInboundMessageSize must be positive");
+    Assert.isTrue(executor == null || !useDirectExecutor,
+        "executor must not be set when using a direct executor");
+    Assert.isTrue(resultPrefetch > 0, "resultPrefetch must be positive");
+    Assert.requireNonNull(codecs, "codecs must not be null");
 
     this.fullyQualifiedDbName = String.format(
         FULLY_QUALIFIED_DB_NAME_PATTERN, projectId, instanceName, databaseName);
     this.credentials = credentials;
+    this.host = host;
+    this.port = port;
+    this.usePlaintext = usePlaintext;
+    this.minSessions = minSessions;
+    this.maxSessions = maxSessions;
+    this.maxSessionWaiters = maxSessionWaiters;
+    this.sessionAcquireTimeout = sessionAcquireTimeout;
+    this.maxIdleSessions = maxIdleSessions;
+    this.sessionMaintenanceInterval = sessionMaintenanceInterval;
+    this.sessionKeepAliveInterval = sessionKeepAliveInterval;
+    this.writeSessionsFraction = writeSessionsFraction;
+    this.numChannels = numChannels;
+    this.channelSelection = channelSelection;
+    this.eventLoopGroup = eventLoopGroup;
+    this.channelType = channelType;
+    this.executor = executor;
+    this.flowControlWindow = flowControlWindow;
+    this.maxInboundMessageSize = maxInboundMessageSize;
+    this.useDirectExecutor = useDirectExecutor;
+    this.resultScheduler = resultScheduler;
+    this.resultPrefetch = resultPrefetch;
+    this.codecs = new DefaultCodecs(codecs);
   }
 
   /**
@@ -67,6 +251,94 @@ public class SpannerConnectionConfiguration {
     return credentials;
   }
 
+  public String getHost() {
+    return this.host;
+  }
+
+  public int getPort() {
+    return this.port;
+  }
+
+  public boolean isUsePlaintext() {
+    return this.usePlaintext;
+  }
+
+  public int getMinSessions() {
+    return this.minSessions;
+  }
+
+  public int getMaxSessions() {
+    return this.maxSessions;
+  }
+
+  public int getMaxSessionWaiters() {
+    return this.maxSessionWaiters;
+  }
+
+  public Duration getSessionAcquireTimeout() {
+    return this.sessionAcquireTimeout;
+  }
+
+  public int getMaxIdleSessions() {
+    return this.maxIdleSessions;
+  }
+
+  public Duration getSessionMaintenanceInterval() {
+    return this.sessionMaintenanceInterval;
+  }
+
+  public Duration getSessionKeepAliveInterval() {
+    return this.sessionKeepAliveInterval;
+  }
+
+  public double getWriteSessionsFraction() {
+    return this.writeSessionsFraction;
+  }
+
+  public int getNumChannels() {
+    return this.numChannels;
+  }
+
+  public ChannelSelection getChannelSelection() {
+    return this.channelSelection;
+  }
+
+  public EventLoopGroup getEventLoopGroup() {
+    return this.eventLoopGroup;
+  }
+
+  public Class<? extends Channel> getChannelType() {
+    return this.channelType;
+  }
+
+  public Executor getExecutor() {
+    return this.executor;
+  }
+
+  public int getFlowControlWindow() {
+    return this.flowControlWindow;
+  }
+
+  public int getMaxInboundMessageSize() {
+    return this.maxInboundMessageSize;
+  }
+
+  public boolean isUseDirectExecutor() {
+    return this.useDirectExecutor;
+  }
+
+  public Scheduler getResultScheduler() {
+    return this.resultScheduler;
+  }
+
+  public int getResultPrefetch() {
+    return this.resultPrefetch;
+  }
+
+  public DefaultCodecs getCodecs() {
+    return this.codecs;
+  }
+
   public static class Builder {
 
     private String projectId;
@@ -77,6 +349,50 @@ public class SpannerConnectionConfiguration {
 
     private GoogleCredentials credentials;
 
+    private String host = DEFAULT_HOST;
+
+    private int port = DEFAULT_PORT;
+
+    private boolean usePlaintext;
+
+    private int minSessions = DEFAULT_MIN_SESSIONS;
+
+    private int maxSessions = DEFAULT_MAX_SESSIONS;
+
+    private int maxSessionWaiters = DEFAULT_MAX_SESSION_WAITERS;
+
+    private Duration sessionAcquireTimeout = DEFAULT_SESSION_ACQUIRE_TIMEOUT;
+
+    private int maxIdleSessions = DEFAULT_MAX_IDLE_SESSIONS;
+
+    private Duration sessionMaintenanceInterval = DEFAULT_SESSION_MAINTENANCE_INTERVAL;
+
+    private Duration sessionKeepAliveInterval = DEFAULT_SESSION_KEEP_ALIVE_INTERVAL;
+
+    private double writeSessionsFraction = DEFAULT_WRITE_SESSIONS_FRACTION;
+
+    private int numChannels = DEFAULT_NUM_CHANNELS;
+
+    private ChannelSelection channelSelection = DEFAULT_CHANNEL_SELECTION;
+
+    private EventLoopGroup eventLoopGroup;
+
+    private Class<? extends Channel> channelType;
+
+    private Executor executor;
+
+    private int flowControlWindow = DEFAULT_FLOW_CONTROL_WINDOW;
+
+    private int maxInboundMessageSize = DEFAULT_MAX_INBOUND_MESSAGE_SIZE;
+
+    private boolean useDirectExecutor;
+
+    private Scheduler resultScheduler;
+
+    private int resultPrefetch = DEFAULT_RESULT_PREFETCH;
+
+    private List<Codec<?>> codecs = new ArrayList<>();
+
     public Builder setProjectId(String projectId) {
       this.projectId = projectId;
       return this;
@@ -97,11 +413,147 @@ public class SpannerConnectionConfiguration {
       return this;
     }
 
+    public Builder setHost(String host) {
+      this.host = host;
+      return this;
+    }
+
+    public Builder setPort(int port) {
+      this.port = port;
+      return this;
+    }
+
+    /**
+     * Connects without TLS, as needed for the emulator or an in-process fake. No credentials
+     * are looked up or sent on plaintext connections.
+     */
+    public Builder setUsePlaintext(boolean usePlaintext) {
+      this.usePlaintext = usePlaintext;
+      return this;
+    }
+
+    public Builder setMinSessions(int minSessions) {
+      this.minSessions = minSessions;
+      return this;
+    }
+
+    public Builder setMaxSessions(int maxSessions) {
+      this.maxSessions = maxSessions;
+      return this;
+    }
+
+    public Builder setMaxSessionWaiters(int maxSessionWaiters) {
+      this.maxSessionWaiters = maxSessionWaiters;
+      return this;
+    }
+
+    public Builder setSessionAcquireTimeout(Duration sessionAcquireTimeout) {
+      this.sessionAcquireTimeout = sessionAcquireTimeout;
+      return this;
+    }
+
+    public Builder setMaxIdleSessions(int maxIdleSessions) {
+      this.maxIdleSessions = maxIdleSessions;
+      return this;
+    }
+
+    public Builder setSessionMaintenanceInterval(Duration sessionMaintenanceInterval) {
+      this.sessionMaintenanceInterval = sessionMaintenanceInterval;
+      return this;
+    }
+
+    public Builder setSessionKeepAliveInterval(Duration sessionKeepAliveInterval) {
+      this.sessionKeepAliveInterval = sessionKeepAliveInterval;
+      return this;
+    }
+
+    public Builder setWriteSessionsFraction(double writeSessionsFraction) {
+      this.writeSessionsFraction = writeSessionsFraction;
+      return this;
+    }
+
+    public Builder setNumChannels(int numChannels) {
+      this.numChannels = numChannels;
+      return this;
+    }
+
+    public Builder setChannelSelection(ChannelSelection channelSelection) {
+      this.channelSelection = channelSelection;
+      return this;
+    }
+
+    /**
+     * Shares a Netty event loop group between the channels, and with other clients using the
+     * same group. See {@link GrpcClient#createEventLoopGroup(int)}. The caller remains
+     * responsible for shutting the group down.
+     */
+    public Builder setEventLoopGroup(EventLoopGroup eventLoopGroup) {
+      this.eventLoopGroup = eventLoopGroup;
+      return this;
+    }
+
+    public Builder setChannelType(Class<? extends Channel> channelType) {
+      this.channelType = channelType;
+      return this;
+    }
+
+    public Builder setExecutor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    public Builder setFlowControlWindow(int flowControlWindow) {
+      this.flowControlWindow = flowControlWindow;
+      return this;
+    }
+
+    public Builder setMaxInboundMessageSize(int maxInboundMessageSize) {
+      this.maxInboundMessageSize = maxInboundMessageSize;
+      return this;
+    }
+
+    /**
+     * Runs gRPC callbacks directly on the network threads, saving a thread hop per message.
+     * Results are then published on the result scheduler, {@code Schedulers.parallel()} unless
+     * set otherwise, so that user code does not block the network threads.
+     */
+    public Builder setUseDirectExecutor(boolean useDirectExecutor) {
+      this.useDirectExecutor = useDirectExecutor;
+      return this;
+    }
+
+    public Builder setResultScheduler(Scheduler resultScheduler) {
+      this.resultScheduler = resultScheduler;
+      return this;
+    }
+
+    /**
+     * Sets how many partial result sets a query requests from Spanner ahead of the rows
+     * consumed. A slow consumer holds at most that many partial result sets in memory, or twice
+     * that many if results are published on a result scheduler, besides the results held back
+     * until the next resume token.
+     */
+    public Builder setResultPrefetch(int resultPrefetch) {
+      this.resultPrefetch = resultPrefetch;
+      return this;
+    }
+
+    /**
+     * Registers a codec in addition to the built-in ones. Codecs registered take precedence over
+     * the built-in codecs, in the order registered, for the Java type they declare.
+     * @param codec the codec to register
+     * @return this builder
+     */
+    public Builder addCodec(Codec<?> codec) {
+      this.codecs.add(Assert.requireNonNull(codec, "codec must not be null"));
+      return this;
+    }
+
     /**
      * Constructs an instance of the {@link SpannerConnectionConfiguration}.
      */
     public SpannerConnectionConfiguration build() throws IOException {
-      if (credentials == null) {
+      if (credentials == null && !usePlaintext) {
         this.credentials = GoogleCredentials.getApplicationDefault();
       }
 
@@ -109,7 +561,29 @@ public class SpannerConnectionConfiguration {
           this.projectId,
           this.instanceName,
           this.databaseName,
-          this.credentials);
+          this.credentials,
+          this.host,
+          this.port,
+          this.usePlaintext,
+          this.minSessions,
+          this.maxSessions,
+          this.maxSessionWaiters,
+          this.sessionAcquireTimeout,
+          this.maxIdleSessions,
+          this.sessionMaintenanceInterval,
+          this.sessionKeepAliveInterval,
+          this.writeSessionsFraction,
+          this.numChannels,
+          this.channelSelection,
+          this.eventLoopGroup,
+          this.channelType,
+          this.executor,
+          this.flowControlWindow,
+          this.maxInboundMessageSize,
+          this.useDirectExecutor,
+          this.resultScheduler,
+          this.resultPrefetch,
+          this.codecs);
     }
 
   }
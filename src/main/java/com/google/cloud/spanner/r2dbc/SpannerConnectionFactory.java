@@ -17,10 +17,15 @@
 package com.google.cloud.spanner.r2dbc;
 
 import com.google.cloud.spanner.r2dbc.client.Client;
+import com.google.cloud.spanner.r2dbc.client.SessionPool;
 import com.google.cloud.spanner.r2dbc.util.Assert;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryMetadata;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 /**
  * An implementation of {@link ConnectionFactory} for creating connections to Cloud Spanner
@@ -28,19 +33,56 @@ import org.reactivestreams.Publisher;
  */
 public class SpannerConnectionFactory implements ConnectionFactory {
 
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
   private SpannerConnectionConfiguration config;
 
   private Client client;
 
+  private SessionPool sessionPool;
+
+  private final AtomicBoolean sessionPoolStarted = new AtomicBoolean();
+
+  /**
+   * Creates a connection factory backed by a session pool. The pool opens its configured minimum
+   * number of sessions and starts its maintenance when the first connection is created.
+   *
+   * @param client client controlling low-level Spanner operations
+   * @param config connection configuration
+   */
   public SpannerConnectionFactory(Client client, SpannerConnectionConfiguration config) {
     this.client = Assert.requireNonNull(client, "Spanner client must not be null");
     this.config = Assert.requireNonNull(config, "Spanner configuration must not be null");
+    this.sessionPool = new SessionPool(this.client, this.config);
   }
 
   @Override
   public Publisher<SpannerConnection> create() {
-    return this.client.createSession(config.getFullyQualifiedDatabaseName())
-      .map(session -> new SpannerConnection(this.client, session));
+    return Mono.defer(() -> {
+      startSessionPool();
+      return this.sessionPool.acquire();
+    }).map(session -> new SpannerConnection(this.client, session, this.sessionPool,
+        this.config.getResultPrefetch(), this.config.getCodecs()));
+  }
+
+  /**
+   * Warms up the session pool and starts its maintenance in the background, once.
+   */
+  private void startSessionPool() {
+    if (this.sessionPoolStarted.compareAndSet(false, true)) {
+      this.sessionPool.warmUp()
+          .subscribe(null, e -> this.logger.warn("Failed to warm up the session pool.", e));
+      this.sessionPool.startMaintenance();
+    }
+  }
+
+  /**
+   * Closes the session pool backing this factory, deleting its idle sessions.
+   *
+   * @return {@link Mono} indicating completion of closing the pool
+   */
+  public Mono<Void> close() {
+    return this.sessionPool.close();
   }
 
   @Override
@@ -18,17 +18,27 @@ package com.google.cloud.spanner.r2dbc;
 
 import static io.r2dbc.spi.ConnectionFactoryOptions.DATABASE;
 import static io.r2dbc.spi.ConnectionFactoryOptions.DRIVER;
+import static io.r2dbc.spi.ConnectionFactoryOptions.HOST;
+import static io.r2dbc.spi.ConnectionFactoryOptions.PORT;
+import static io.r2dbc.spi.ConnectionFactoryOptions.SSL;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.spanner.r2dbc.client.ChannelSelection;
 import com.google.cloud.spanner.r2dbc.client.Client;
 import com.google.cloud.spanner.r2dbc.client.GrpcClient;
 import com.google.cloud.spanner.r2dbc.util.Assert;
 import com.google.common.annotations.VisibleForTesting;
+import io.grpc.netty.shaded.io.netty.channel.Channel;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryOptions;
 import io.r2dbc.spi.ConnectionFactoryProvider;
 import io.r2dbc.spi.Option;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * An implementation of {@link ConnectionFactoryProvider} for creating {@link
@@ -52,21 +62,164 @@ public class SpannerConnectionFactoryProvider implements ConnectionFactoryProvid
   public static final Option<GoogleCredentials> GOOGLE_CREDENTIALS =
       Option.valueOf("google_credentials");
 
+  /** Option name for the number of sessions kept open in the session pool. */
+  public static final Option<Integer> MIN_SESSIONS = Option.valueOf("min_sessions");
+
+  /** Option name for the maximum number of sessions in the session pool. */
+  public static final Option<Integer> MAX_SESSIONS = Option.valueOf("max_sessions");
+
+  /** Option name for the maximum number of callers waiting for a pooled session. */
+  public static final Option<Integer> MAX_SESSION_WAITERS = Option.valueOf("max_session_waiters");
+
+  /** Option name for how long to wait for a pooled session before failing. */
+  public static final Option<Duration> SESSION_ACQUIRE_TIMEOUT =
+      Option.valueOf("session_acquire_timeout");
+
+  /** Option name for the number of idle sessions above which unused sessions are deleted. */
+  public static final Option<Integer> MAX_IDLE_SESSIONS = Option.valueOf("max_idle_sessions");
+
+  /** Option name for how often the session pool maintenance runs. */
+  public static final Option<Duration> SESSION_MAINTENANCE_INTERVAL =
+      Option.valueOf("session_maintenance_interval");
+
+  /** Option name for how long a pooled session may sit idle before it is pinged. */
+  public static final Option<Duration> SESSION_KEEP_ALIVE_INTERVAL =
+      Option.valueOf("session_keep_alive_interval");
+
+  /** Option name for the fraction of pooled sessions with a transaction begun ahead of time. */
+  public static final Option<Double> WRITE_SESSIONS_FRACTION =
+      Option.valueOf("write_sessions_fraction");
+
+  /** Option name for the number of gRPC channels calls are spread over. */
+  public static final Option<Integer> NUM_CHANNELS = Option.valueOf("num_channels");
+
+  /**
+   * Option name for how a gRPC channel is picked for calls not bound to a session; one of the
+   * {@link ChannelSelection} names.
+   */
+  public static final Option<ChannelSelection> CHANNEL_SELECTION =
+      Option.valueOf("channel_selection");
+
+  /** Option name for a Netty event loop group shared by the gRPC channels. */
+  public static final Option<EventLoopGroup> EVENT_LOOP_GROUP =
+      Option.valueOf("event_loop_group");
+
+  /** Option name for the Netty channel type matching {@link #EVENT_LOOP_GROUP}. */
+  public static final Option<Class<? extends Channel>> CHANNEL_TYPE =
+      Option.valueOf("channel_type");
+
+  /** Option name for the executor running gRPC callbacks. */
+  public static final Option<Executor> EXECUTOR = Option.valueOf("executor");
+
+  /** Option name for the HTTP/2 flow control window of each gRPC channel, in bytes. */
+  public static final Option<Integer> FLOW_CONTROL_WINDOW = Option.valueOf("flow_control_window");
+
+  /** Option name for the largest message accepted from Spanner, in bytes. */
+  public static final Option<Integer> MAX_INBOUND_MESSAGE_SIZE =
+      Option.valueOf("max_inbound_message_size");
+
+  /** Option name for running gRPC callbacks directly on the network threads. */
+  public static final Option<Boolean> DIRECT_EXECUTOR = Option.valueOf("direct_executor");
+
+  /** Option name for the Reactor scheduler call results are published on. */
+  public static final Option<Scheduler> RESULT_SCHEDULER = Option.valueOf("result_scheduler");
+
+  /** Option name for the number of partial result sets requested ahead of the rows consumed. */
+  public static final Option<Integer> RESULT_PREFETCH = Option.valueOf("result_prefetch");
+
   private Client client;
 
   @Override
   public ConnectionFactory create(ConnectionFactoryOptions connectionFactoryOptions) {
     try {
-      SpannerConnectionConfiguration config = new SpannerConnectionConfiguration.Builder()
-          .setProjectId(connectionFactoryOptions.getRequiredValue(PROJECT))
-          .setInstanceName(connectionFactoryOptions.getRequiredValue(INSTANCE))
-          .setDatabaseName(connectionFactoryOptions.getRequiredValue(DATABASE))
-          .setCredentials(connectionFactoryOptions.getValue(GOOGLE_CREDENTIALS))
-          .build();
+      SpannerConnectionConfiguration.Builder configBuilder =
+          new SpannerConnectionConfiguration.Builder()
+              .setProjectId(connectionFactoryOptions.getRequiredValue(PROJECT))
+              .setInstanceName(connectionFactoryOptions.getRequiredValue(INSTANCE))
+              .setDatabaseName(connectionFactoryOptions.getRequiredValue(DATABASE))
+              .setCredentials(connectionFactoryOptions.getValue(GOOGLE_CREDENTIALS));
+
+      if (connectionFactoryOptions.hasOption(HOST)) {
+        configBuilder.setHost(connectionFactoryOptions.getValue(HOST));
+      }
+      if (connectionFactoryOptions.hasOption(PORT)) {
+        configBuilder.setPort(intValue(connectionFactoryOptions, PORT));
+      }
+      if (connectionFactoryOptions.hasOption(SSL)) {
+        configBuilder.setUsePlaintext(!booleanValue(connectionFactoryOptions, SSL));
+      }
+      if (connectionFactoryOptions.hasOption(MIN_SESSIONS)) {
+        configBuilder.setMinSessions(intValue(connectionFactoryOptions, MIN_SESSIONS));
+      }
+      if (connectionFactoryOptions.hasOption(MAX_SESSIONS)) {
+        configBuilder.setMaxSessions(intValue(connectionFactoryOptions, MAX_SESSIONS));
+      }
+      if (connectionFactoryOptions.hasOption(MAX_SESSION_WAITERS)) {
+        configBuilder.setMaxSessionWaiters(
+            intValue(connectionFactoryOptions, MAX_SESSION_WAITERS));
+      }
+      if (connectionFactoryOptions.hasOption(SESSION_ACQUIRE_TIMEOUT)) {
+        configBuilder.setSessionAcquireTimeout(
+            durationValue(connectionFactoryOptions, SESSION_ACQUIRE_TIMEOUT));
+      }
+      if (connectionFactoryOptions.hasOption(MAX_IDLE_SESSIONS)) {
+        configBuilder.setMaxIdleSessions(intValue(connectionFactoryOptions, MAX_IDLE_SESSIONS));
+      }
+      if (connectionFactoryOptions.hasOption(SESSION_MAINTENANCE_INTERVAL)) {
+        configBuilder.setSessionMaintenanceInterval(
+            durationValue(connectionFactoryOptions, SESSION_MAINTENANCE_INTERVAL));
+      }
+      if (connectionFactoryOptions.hasOption(SESSION_KEEP_ALIVE_INTERVAL)) {
+        configBuilder.setSessionKeepAliveInterval(
+            durationValue(connectionFactoryOptions, SESSION_KEEP_ALIVE_INTERVAL));
+      }
+      if (connectionFactoryOptions.hasOption(WRITE_SESSIONS_FRACTION)) {
+        configBuilder.setWriteSessionsFraction(
+            doubleValue(connectionFactoryOptions, WRITE_SESSIONS_FRACTION));
+      }
+      if (connectionFactoryOptions.hasOption(NUM_CHANNELS)) {
+        configBuilder.setNumChannels(intValue(connectionFactoryOptions, NUM_CHANNELS));
+      }
+      if (connectionFactoryOptions.hasOption(CHANNEL_SELECTION)) {
+        configBuilder.setChannelSelection(
+            channelSelectionValue(connectionFactoryOptions, CHANNEL_SELECTION));
+      }
+
+      if (connectionFactoryOptions.hasOption(EVENT_LOOP_GROUP)) {
+        configBuilder.setEventLoopGroup(connectionFactoryOptions.getValue(EVENT_LOOP_GROUP));
+      }
+      if (connectionFactoryOptions.hasOption(CHANNEL_TYPE)) {
+        configBuilder.setChannelType(connectionFactoryOptions.getValue(CHANNEL_TYPE));
+      }
+      if (connectionFactoryOptions.hasOption(EXECUTOR)) {
+        configBuilder.setExecutor(connectionFactoryOptions.getValue(EXECUTOR));
+      }
+      if (connectionFactoryOptions.hasOption(FLOW_CONTROL_WINDOW)) {
+        configBuilder.setFlowControlWindow(
+            intValue(connectionFactoryOptions, FLOW_CONTROL_WINDOW));
+      }
+      if (connectionFactoryOptions.hasOption(MAX_INBOUND_MESSAGE_SIZE)) {
+        configBuilder.setMaxInboundMessageSize(
+            intValue(connectionFactoryOptions, MAX_INBOUND_MESSAGE_SIZE));
+      }
+
+      if (connectionFactoryOptions.hasOption(DIRECT_EXECUTOR)) {
+        configBuilder.setUseDirectExecutor(
+            booleanValue(connectionFactoryOptions, DIRECT_EXECUTOR));
+      }
+      if (connectionFactoryOptions.hasOption(RESULT_SCHEDULER)) {
+        configBuilder.setResultScheduler(connectionFactoryOptions.getValue(RESULT_SCHEDULER));
+      }
+
+      if (connectionFactoryOptions.hasOption(RESULT_PREFETCH)) {
+        configBuilder.setResultPrefetch(intValue(connectionFactoryOptions, RESULT_PREFETCH));
+      }
+
+      SpannerConnectionConfiguration config = configBuilder.build();
 
       if (this.client == null) {
         // GrpcClient should only be instantiated if/when a SpannerConnectionFactory is needed.
-        this.client = new GrpcClient(config.getCredentials());
+        this.client = new GrpcClient(config);
       }
       return new SpannerConnectionFactory(client, config);
     } catch (IOException e) {
@@ -82,6 +235,66 @@ public class SpannerConnectionFactoryProvider implements ConnectionFactoryProvid
     return DRIVER_NAME.equals(driver);
   }
 
+  /**
+   * Reads an integer option, which may have been supplied either as a number or, when parsed
+   * from a connection URL, as a string.
+   */
+  private static int intValue(ConnectionFactoryOptions options, Option<?> option) {
+    Object value = options.getValue(option);
+    if (value instanceof Number) {
+      return ((Number) value).intValue();
+    }
+    return Integer.parseInt(value.toString());
+  }
+
+  /**
+   * Reads a boolean option, which may have been supplied either as a boolean or as a string.
+   */
+  private static boolean booleanValue(ConnectionFactoryOptions options, Option<?> option) {
+    Object value = options.getValue(option);
+    if (value instanceof Boolean) {
+      return (Boolean) value;
+    }
+    return Boolean.parseBoolean(value.toString());
+  }
+
+  /**
+   * Reads a floating point option, which may have been supplied either as a number or as a
+   * string.
+   */
+  private static double doubleValue(ConnectionFactoryOptions options, Option<?> option) {
+    Object value = options.getValue(option);
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue();
+    }
+    return Double.parseDouble(value.toString());
+  }
+
+  /**
+   * Reads a {@link Duration} option, which may have been supplied either as a {@link Duration}
+   * or as an ISO-8601 string such as {@code PT30S}.
+   */
+  private static Duration durationValue(ConnectionFactoryOptions options, Option<?> option) {
+    Object value = options.getValue(option);
+    if (value instanceof Duration) {
+      return (Duration) value;
+    }
+    return Duration.parse(value.toString());
+  }
+
+  /**
+   * Reads a {@link ChannelSelection} option, which may have been supplied either as the enum
+   * constant or as its case-insensitive name.
+   */
+  private static ChannelSelection channelSelectionValue(
+      ConnectionFactoryOptions options, Option<?> option) {
+    Object value = options.getValue(option);
+    if (value instanceof ChannelSelection) {
+      return (ChannelSelection) value;
+    }
+    return ChannelSelection.valueOf(value.toString().toUpperCase(Locale.ROOT));
+  }
+
   @VisibleForTesting
   void setClient(Client client) {
     this.client = client;
@@ -16,12 +16,20 @@
 
 package com.google.cloud.spanner.r2dbc;
 
-import com.google.cloud.spanner.r2dbc.codecs.Codecs;
-import com.google.cloud.spanner.r2dbc.codecs.DefaultCodecs;
 import com.google.protobuf.Value;
-import com.google.spanner.v1.Type;
+import com.google.protobuf.Value.KindCase;
 import io.r2dbc.spi.Row;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * {@link Row} implementation for Cloud Spanner.
@@ -29,12 +37,32 @@ import java.util.List;
  */
 public class SpannerRow implements Row {
 
-  private static final Codecs codecs = new DefaultCodecs();
+  /**
+   * Types of decoded values that cannot be modified by the caller, so that the same instance can
+   * be returned by later reads. Values of other types, such as arrays and byte buffers, are
+   * decoded again on every read.
+   */
+  private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+      String.class, Boolean.class, Integer.class, Long.class, Double.class, BigDecimal.class,
+      LocalDate.class, LocalDateTime.class, Instant.class, OffsetDateTime.class,
+      ZonedDateTime.class));
+
+  private final Value[] values;
 
-  private final List<Value> values;
+  private final int offset;
+
+  private final int size;
 
   private final SpannerRowMetadata rowMetadata;
 
+  /**
+   * Decoded values of the columns read so far, and the types they were decoded to. Allocated on
+   * the first read.
+   */
+  private Object[] decodedValues;
+
+  private Class<?>[] decodedTypes;
+
   /**
    * Builds a new Spanner row.
    *
@@ -42,23 +70,116 @@ public class SpannerRow implements Row {
    * @param rowMetadata the type information for each column.
    */
   public SpannerRow(List<Value> values, SpannerRowMetadata rowMetadata) {
+    this(values.toArray(new Value[0]), 0, values.size(), rowMetadata);
+  }
+
+  /**
+   * Builds a new Spanner row as a view of a batch of values shared with other rows.
+   *
+   * <p>The row holds on to the whole batch, not just its own values.
+   *
+   * @param batch the values of consecutive rows.
+   * @param offset the position of the first column of this row in {@code batch}.
+   * @param rowMetadata the type information for each column.
+   */
+  public SpannerRow(Value[] batch, int offset, SpannerRowMetadata rowMetadata) {
+    this(batch, offset, rowMetadata.getColumnCount(), rowMetadata);
+  }
+
+  private SpannerRow(Value[] values, int offset, int size, SpannerRowMetadata rowMetadata) {
     this.values = values;
+    this.offset = offset;
+    this.size = size;
     this.rowMetadata = rowMetadata;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Immutable values, such as strings, numbers and times, are decoded at most once per
+   * requested type; reading a column again returns the same decoded object. Mutable values, such
+   * as arrays and byte buffers, are decoded anew on every read, so changing one does not affect
+   * later reads. Rows are meant to be read by a single thread.
+   */
   @Override
+  @SuppressWarnings("unchecked")
   public <T> T get(Object identifier, Class<T> returnType) {
     int columnIndex = rowMetadata.getColumnIndex(identifier);
+    Value spannerValue = getValue(columnIndex);
 
-    Value spannerValue = values.get(columnIndex);
-    Type spannerType = (Type) rowMetadata.getColumnMetadata(identifier).getNativeTypeMetadata();
+    if (this.decodedTypes == null) {
+      this.decodedValues = new Object[this.size];
+      this.decodedTypes = new Class<?>[this.size];
+    } else if (this.decodedTypes[columnIndex] == returnType) {
+      return (T) this.decodedValues[columnIndex];
+    }
 
-    T decodedValue = codecs.decode(spannerValue, spannerType, returnType);
+    T decodedValue = rowMetadata.getDecodePlan().decode(columnIndex, spannerValue, returnType);
+    if (decodedValue == null || IMMUTABLE_TYPES.contains(decodedValue.getClass())) {
+      this.decodedValues[columnIndex] = decodedValue;
+      this.decodedTypes[columnIndex] = returnType;
+    }
     return decodedValue;
   }
 
+  /**
+   * Returns the value of an {@code INT64} column without boxing it.
+   *
+   * @param index the index of the column
+   * @return the value of the column
+   * @throws IllegalArgumentException if the column is not of type {@code INT64}
+   * @throws NullPointerException if the value is {@code NULL}; check with {@link #isNull(int)}
+   */
+  public long getLong(int index) {
+    return rowMetadata.getDecodePlan().decodeLong(index, getValue(index));
+  }
+
+  /**
+   * Returns the value of a {@code FLOAT64} column without boxing it.
+   *
+   * @param index the index of the column
+   * @return the value of the column
+   * @throws IllegalArgumentException if the column is not of type {@code FLOAT64}
+   * @throws NullPointerException if the value is {@code NULL}; check with {@link #isNull(int)}
+   */
+  public double getDouble(int index) {
+    return rowMetadata.getDecodePlan().decodeDouble(index, getValue(index));
+  }
+
+  /**
+   * Returns the value of a {@code BOOL} column without boxing it.
+   *
+   * @param index the index of the column
+   * @return the value of the column
+   * @throws IllegalArgumentException if the column is not of type {@code BOOL}
+   * @throws NullPointerException if the value is {@code NULL}; check with {@link #isNull(int)}
+   */
+  public boolean getBoolean(int index) {
+    return rowMetadata.getDecodePlan().decodeBoolean(index, getValue(index));
+  }
+
+  /**
+   * Indicates whether the value of a column is {@code NULL}.
+   *
+   * @param index the index of the column
+   * @return true if the value is {@code NULL}, false otherwise
+   */
+  public boolean isNull(int index) {
+    return getValue(index).getKindCase() == KindCase.NULL_VALUE;
+  }
+
   public List<Value> getValues() {
-    return this.values;
+    return Collections.unmodifiableList(
+        Arrays.asList(this.values).subList(this.offset, this.offset + this.size));
+  }
+
+  private Value getValue(int columnIndex) {
+    if (columnIndex < 0 || columnIndex >= this.size) {
+      throw new IndexOutOfBoundsException(
+          "Column index " + columnIndex + " is out of bounds for a row of " + this.size
+              + " columns.");
+    }
+    return this.values[this.offset + columnIndex];
   }
 
   public SpannerRowMetadata getRowMetadata() {
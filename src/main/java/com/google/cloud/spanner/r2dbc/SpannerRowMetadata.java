@@ -16,8 +16,11 @@
 
 package com.google.cloud.spanner.r2dbc;
 
+import com.google.cloud.spanner.r2dbc.codecs.DecodePlan;
+import com.google.cloud.spanner.r2dbc.codecs.DefaultCodecs;
 import com.google.spanner.v1.ResultSetMetadata;
 import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Type;
 import io.r2dbc.spi.ColumnMetadata;
 import io.r2dbc.spi.RowMetadata;
 import java.util.Collections;
@@ -30,8 +33,12 @@ import java.util.stream.Collectors;
  */
 public class SpannerRowMetadata implements RowMetadata {
 
+  private static final DefaultCodecs DEFAULT_CODECS = new DefaultCodecs();
+
   private final List<ColumnMetadata> columnMetadatas;
 
+  private final DecodePlan decodePlan;
+
   /**
    * Mapping of column names to its integer index position in the row.
    */
@@ -43,16 +50,29 @@ public class SpannerRowMetadata implements RowMetadata {
    * @param resultSetMetadata the row from Cloud Spanner.
    */
   public SpannerRowMetadata(ResultSetMetadata resultSetMetadata) {
+    this(resultSetMetadata, DEFAULT_CODECS);
+  }
+
+  /**
+   * Constructor for rows decoded with the given codecs.
+   *
+   * @param resultSetMetadata the row from Cloud Spanner.
+   * @param codecs the codecs decoding the columns of rows.
+   */
+  public SpannerRowMetadata(ResultSetMetadata resultSetMetadata, DefaultCodecs codecs) {
     this.columnMetadatas = resultSetMetadata.getRowType().getFieldsList()
         .stream()
         .map(SpannerColumnMetadata::new)
         .collect(Collectors.toList());
 
     this.columnNameIndex = new HashMap<>();
+    Type[] columnTypes = new Type[resultSetMetadata.getRowType().getFieldsCount()];
     for (int i = 0; i < resultSetMetadata.getRowType().getFieldsCount(); i++) {
       Field currField = resultSetMetadata.getRowType().getFields(i);
       this.columnNameIndex.put(currField.getName(), i);
+      columnTypes[i] = currField.getType();
     }
+    this.decodePlan = codecs.compile(columnTypes);
   }
 
   @Override
@@ -66,6 +86,20 @@ public class SpannerRowMetadata implements RowMetadata {
     return Collections.unmodifiableList(columnMetadatas);
   }
 
+  /**
+   * Returns the number of columns in a row.
+   */
+  int getColumnCount() {
+    return columnMetadatas.size();
+  }
+
+  /**
+   * Returns the plan decoding the columns of rows with this metadata.
+   */
+  DecodePlan getDecodePlan() {
+    return decodePlan;
+  }
+
   /**
    * Returns the column index of the value in a row for the given {@code identifier}.
    */
@@ -82,12 +116,13 @@ public class SpannerRowMetadata implements RowMetadata {
   }
 
   private int getColumnIndexByName(String name) {
-    if (!columnNameIndex.containsKey(name)) {
+    Integer columnIndex = columnNameIndex.get(name);
+    if (columnIndex == null) {
       throw new IllegalArgumentException(
           "The column name " + name + " does not exist for the Spanner row. "
               + "Available columns: " + columnNameIndex.keySet());
     }
 
-    return columnNameIndex.get(name);
+    return columnIndex;
   }
 }
@@ -16,23 +16,35 @@
 
 package com.google.cloud.spanner.r2dbc;
 
+import static com.google.cloud.spanner.r2dbc.util.SpannerExceptionUtil.isSessionNotFound;
+
 import com.google.cloud.spanner.r2dbc.client.Client;
+import com.google.cloud.spanner.r2dbc.codecs.DefaultCodecs;
 import com.google.cloud.spanner.r2dbc.result.PartialResultRowExtractor;
-import com.google.cloud.spanner.r2dbc.util.ConvertingFluxAdapter;
 import com.google.spanner.v1.PartialResultSet;
+import com.google.spanner.v1.ResultSetStats;
 import com.google.spanner.v1.Session;
 import com.google.spanner.v1.Transaction;
 import io.r2dbc.spi.Result;
 import io.r2dbc.spi.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
 
 /**
  * {@link Statement} implementation for Cloud Spanner.
  */
 public class SpannerStatement implements Statement {
 
+  /**
+   * Default number of {@link PartialResultSet}s requested ahead of row demand.
+   */
+  public static final int DEFAULT_RESULT_PREFETCH = 16;
+
   private Client client;
 
   private Session session;
@@ -41,6 +53,14 @@ public class SpannerStatement implements Statement {
 
   private String sql;
 
+  private Function<Session, Mono<Session>> sessionReplacer;
+
+  private InlineBeginTransaction inlineTransaction;
+
+  private int resultPrefetch;
+
+  private DefaultCodecs codecs;
+
   /**
    * Creates a Spanner statement for a given SQL statement.
    *
@@ -54,10 +74,49 @@ public class SpannerStatement implements Statement {
    */
   public SpannerStatement(
       Client client, Session session, Mono<Transaction> transaction, String sql) {
+    this(client, session, transaction, sql, null);
+  }
+
+  /**
+   * Creates a Spanner statement that recovers from an expired session.
+   *
+   * <p>If Spanner reports "Session not found" before any result arrives and the statement does
+   * not run in a read-write transaction, the statement obtains a fresh session from
+   * {@code sessionReplacer} and is executed again on it.
+   *
+   * @param client cloud spanner client to use for performing the query operation
+   * @param session current cloud spanner session
+   * @param transaction current cloud spanner transaction, or empty if no transaction is started
+   * @param sql the query to execute
+   * @param sessionReplacer provides a replacement for an expired session, or {@code null} to
+   *     surface "Session not found" errors to the caller
+   */
+  public SpannerStatement(Client client, Session session, Mono<Transaction> transaction,
+      String sql, Function<Session, Mono<Session>> sessionReplacer) {
+    this(client, session, transaction, sql, sessionReplacer, null, DEFAULT_RESULT_PREFETCH,
+        null);
+  }
+
+  /**
+   * Creates a Spanner statement in a read-write transaction that may not be begun yet.
+   *
+   * <p>If no statement has begun {@code inlineTransaction} when this one executes, this statement
+   * begins it; otherwise it waits for {@code transaction} to resolve.
+   *
+   * <p>Up to {@code resultPrefetch} partial result sets are requested from Spanner ahead of the
+   * rows consumed. Rows are decoded with {@code codecs}, or the built-in codecs if {@code null}.
+   */
+  SpannerStatement(Client client, Session session, Mono<Transaction> transaction,
+      String sql, Function<Session, Mono<Session>> sessionReplacer,
+      InlineBeginTransaction inlineTransaction, int resultPrefetch, DefaultCodecs codecs) {
     this.client = client;
     this.session = session;
     this.transaction = transaction;
     this.sql = sql;
+    this.sessionReplacer = sessionReplacer;
+    this.inlineTransaction = inlineTransaction;
+    this.resultPrefetch = resultPrefetch;
+    this.codecs = codecs;
   }
 
   @Override
@@ -85,17 +144,94 @@ public class SpannerStatement implements Statement {
     return null;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The rows and the row count of the result share a single execution of the statement, which
+   * starts when either of them is consumed. The row count is taken from the
+   * {@link ResultSetStats} at the end of the stream, and is empty if the rows are cancelled
+   * before the end. Streamed rows are not retained, so they can be consumed only once. If the row
+   * count is consumed on its own first, rows that are mapped afterwards are streamed by running the
+   * query again; a statement that returned no rows is not run again.
+   *
+   * <p>Rows are decoded as they are demanded. Partial result sets are requested from Spanner a
+   * bounded number at a time ahead of that demand, and topped up once most of them have been
+   * decoded, so a slow consumer holds at most that many partial result sets in memory, or twice
+   * that many if results are handed over to a result scheduler. In addition, partial result sets
+   * received since the last resume token are held back, up to a fixed limit, so that the query
+   * can be resumed after a transient error.
+   */
   @Override
   public Publisher<? extends Result> execute() {
-    Flux<PartialResultSet> result
-        = client.executeStreamingSql(this.session, this.transaction, this.sql);
-
-    return Mono
-        .just(new SpannerResult(
-            Flux.create(sink -> result
-                .subscribe(new ConvertingFluxAdapter(sink, new PartialResultRowExtractor()))),
-            result.next().map(partialResultSet -> partialResultSet.hasStats()
-                ? Math.toIntExact(partialResultSet.getStats().getRowCountExact())
-                : 0)));
+    MonoProcessor<ResultSetStats> stats = MonoProcessor.create();
+    AtomicReference<ResultSetStats> lastStats = new AtomicReference<>();
+    AtomicBoolean rowsReceived = new AtomicBoolean();
+    Flux<PartialResultSet> firstExecution = executeStreamingSql()
+        .doOnNext(partialResultSet -> {
+          if (partialResultSet.getValuesCount() > 0) {
+            rowsReceived.set(true);
+          }
+          if (partialResultSet.hasStats()) {
+            lastStats.set(partialResultSet.getStats());
+          }
+        })
+        .doOnComplete(() -> stats.onNext(lastStats.get() != null
+            ? lastStats.get()
+            : ResultSetStats.getDefaultInstance()))
+        .doOnError(stats::onError)
+        // the row count of a cancelled execution is unknown
+        .doOnCancel(stats::onComplete);
+
+    // concurrent consumers of the rows and the row count join the execution in progress
+    Flux<PartialResultSet> execution = Flux.defer(() -> {
+      if (!stats.isTerminated()) {
+        return firstExecution;
+      }
+      return rowsReceived.get()
+          ? executeStreamingSql()
+          : stats.thenMany(Flux.<PartialResultSet>empty());
+    })
+        .publish(this.resultPrefetch)
+        .refCount();
+
+    AtomicBoolean rowsConsumed = new AtomicBoolean();
+    Flux<PartialResultSet> rowSource = Flux.defer(() -> rowsConsumed.compareAndSet(false, true)
+        ? execution
+        : Flux.error(new IllegalStateException("The rows of a result can only be consumed once.")));
+
+    Mono<Integer> rowsUpdated = Mono.defer(() -> stats.isTerminated()
+        ? stats
+        : execution.then(stats))
+        .map(resultSetStats -> Math.toIntExact(resultSetStats.getRowCountExact()));
+
+    // the row extractor merges chunks across partial result sets, so each consumer needs its own
+    Flux<SpannerRow> rows = Flux.defer(() ->
+        rowSource.flatMapIterable(new PartialResultRowExtractor(this.codecs), 1));
+
+    return Mono.just(new SpannerResult(rows, rowsUpdated));
+  }
+
+  private Flux<PartialResultSet> executeStreamingSql() {
+    return Flux.defer(() -> {
+      if (this.inlineTransaction != null && this.inlineTransaction.claimBegin()) {
+        return this.inlineTransaction.executeStreamingSql(this.sql);
+      }
+
+      Session executionSession = this.session;
+      AtomicBoolean resultReceived = new AtomicBoolean();
+
+      return this.client.executeStreamingSql(executionSession, this.transaction, this.sql)
+          .doOnNext(partialResultSet -> resultReceived.set(true))
+          .onErrorResume(
+              e -> this.sessionReplacer != null && !resultReceived.get() && isSessionNotFound(e),
+              e -> this.transaction.hasElement().flatMapMany(inTransaction -> inTransaction
+                  ? Flux.<PartialResultSet>error(e)
+                  : this.sessionReplacer.apply(executionSession)
+                      .flatMapMany(newSession -> {
+                        this.session = newSession;
+                        return this.client
+                            .executeStreamingSql(newSession, this.transaction, this.sql);
+                      })));
+    });
   }
 }
@@ -35,6 +35,18 @@ public interface Client {
    */
   Mono<Session> createSession(String databaseName);
 
+  /**
+   * Creates multiple Spanner sessions in a single round-trip.
+   *
+   * <p>Spanner may return fewer sessions than requested; callers that need an exact number of
+   * sessions must issue further requests for the remainder.
+   * @param databaseName Fully qualified Spanner database name in the format
+   * {@code projects/[PROJECT_ID]/instances/[INSTANCE]/databases/[DATABASE]}
+   * @param sessionCount the number of sessions to create
+   * @return {@link Flux} of the generated sessions.
+   */
+  Flux<Session> batchCreateSessions(String databaseName, int sessionCount);
+
   /**
    * Deletes a Spanner session that is used to call Spanner APIs.
    * @param session The session you wish to close.
@@ -42,6 +54,13 @@ public interface Client {
    */
   Mono<Void> deleteSession(Session session);
 
+  /**
+   * Drops any state the client keeps for a session that is no longer used, without a call to
+   * Spanner. Used for sessions that Spanner no longer knows about.
+   * @param session The session to forget.
+   */
+  void forgetSession(Session session);
+
   /**
    * Begins a new Spanner {@link Transaction} within the provided {@link Session}.
    * @param session The {@link Session} object with which requests are made to the Spanner API.
@@ -72,6 +91,17 @@ public interface Client {
   Flux<PartialResultSet> executeStreamingSql(
       Session session, Mono<Transaction> transaction, String sql);
 
+  /**
+   * Execute a streaming query that begins a new read-write {@link Transaction} as a side-effect,
+   * saving a separate {@link #beginTransaction(Session)} round-trip.
+   *
+   * <p>The new transaction is returned in the metadata of the first {@link PartialResultSet}.
+   * @param session The {@link Session} object with which requests are made to the Spanner API.
+   * @param sql the query to execute
+   * @return {@link Flux} of the partial results of the query.
+   */
+  Flux<PartialResultSet> beginTransactionAndExecuteStreamingSql(Session session, String sql);
+
   /**
    * Release any resources held by the {@link Client}.
    *
@@ -17,8 +17,13 @@
 package com.google.cloud.spanner.r2dbc.client;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.spanner.r2dbc.SpannerConnectionConfiguration;
 import com.google.cloud.spanner.r2dbc.util.ObservableReactiveUtil;
+import com.google.cloud.spanner.r2dbc.util.SpannerExceptionUtil;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
+import com.google.spanner.v1.BatchCreateSessionsRequest;
+import com.google.spanner.v1.BatchCreateSessionsResponse;
 import com.google.spanner.v1.BeginTransactionRequest;
 import com.google.spanner.v1.CommitRequest;
 import com.google.spanner.v1.CommitResponse;
@@ -39,12 +44,27 @@ import io.grpc.CallCredentials;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.auth.MoreCallCredentials;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.Channel;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
 import io.grpc.stub.ClientCallStreamObserver;
 import io.grpc.stub.ClientResponseObserver;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * gRPC-based {@link Client} implementation.
@@ -54,24 +74,54 @@ public class GrpcClient implements Client {
   public static final String HOST = "spanner.googleapis.com";
   public static final int PORT = 443;
 
-  private final ManagedChannel channel;
-  private final SpannerStub spanner;
+  /** Results of a query held back without a resume token before they are released regardless. */
+  static final int MAX_BUFFERED_RESULTS = 512;
+
+  private final List<ManagedChannel> channels;
+  private final SpannerStubPool spanner;
 
   /**
-   * Initializes the Cloud Spanner gRPC async stub.
+   * Initializes the Cloud Spanner gRPC async stub on a single channel.
    */
   public GrpcClient(GoogleCredentials credentials) {
-    // Create blocking and async stubs using the channel
-    CallCredentials callCredentials = MoreCallCredentials.from(credentials);
+    this(credentials, 1, ChannelSelection.ROUND_ROBIN, null,
+        SpannerConnectionConfiguration.DEFAULT_RESULT_PREFETCH,
+        () -> ManagedChannelBuilder.forAddress(HOST, PORT).build());
+  }
 
-    // Create a channel
-    this.channel = ManagedChannelBuilder
-        .forAddress(HOST, PORT)
-        .build();
+  /**
+   * Initializes the Cloud Spanner gRPC async stubs on the channels described by the
+   * configuration.
+   *
+   * @param config connection configuration
+   */
+  public GrpcClient(SpannerConnectionConfiguration config) {
+    // Call credentials can only be sent over TLS; plaintext endpoints are local stand-ins such as
+    // the emulator, which do not authenticate.
+    this(config.isUsePlaintext() ? null : config.getCredentials(), config.getNumChannels(),
+        config.getChannelSelection(), resultScheduler(config), config.getResultPrefetch(),
+        () -> createChannel(config));
+  }
 
-    // Create the asynchronous stub for Cloud Spanner
-    this.spanner = SpannerGrpc.newStub(this.channel)
-        .withCallCredentials(callCredentials);
+  private GrpcClient(GoogleCredentials credentials, int numChannels,
+      ChannelSelection channelSelection, Scheduler resultScheduler, int resultPrefetch,
+      Supplier<ManagedChannel> channelFactory) {
+    CallCredentials callCredentials =
+        credentials == null ? null : MoreCallCredentials.from(credentials);
+
+    this.channels = new ArrayList<>(numChannels);
+    List<SpannerStub> stubs = new ArrayList<>(numChannels);
+    for (int i = 0; i < numChannels; i++) {
+      // Create a channel
+      ManagedChannel channel = channelFactory.get();
+      this.channels.add(channel);
+
+      // Create the asynchronous stub for Cloud Spanner
+      SpannerStub stub = SpannerGrpc.newStub(channel);
+      stubs.add(callCredentials == null ? stub : stub.withCallCredentials(callCredentials));
+    }
+    this.spanner =
+        new SpannerStubPool(stubs, channelSelection, resultScheduler, resultPrefetch);
   }
 
   /**
@@ -80,13 +130,99 @@ public class GrpcClient implements Client {
    * @param spanner The asynchronous gRPC Spanner client stub.
    */
   public GrpcClient(SpannerStub spanner) throws IOException {
-    this.spanner = spanner;
-    this.channel = null;
+    this(Collections.singletonList(spanner), ChannelSelection.ROUND_ROBIN);
+  }
+
+  /**
+   * Constructor that builds the client from user-specified {@code SpannerStub}s, each of which
+   * is expected to use its own channel.
+   *
+   * @param stubs The asynchronous gRPC Spanner client stubs.
+   * @param channelSelection how a stub is picked for calls not bound to a session
+   */
+  public GrpcClient(List<SpannerStub> stubs, ChannelSelection channelSelection) {
+    this.spanner = new SpannerStubPool(stubs, channelSelection);
+    this.channels = Collections.emptyList();
+  }
+
+  /**
+   * Constructor that builds the client from user-specified {@code SpannerStub}s, publishing call
+   * results on a scheduler.
+   *
+   * @param stubs The asynchronous gRPC Spanner client stubs.
+   * @param channelSelection how a stub is picked for calls not bound to a session
+   * @param resultScheduler the scheduler call results are published on
+   * @param resultPrefetch how many streamed results are requested ahead of the consumer
+   */
+  GrpcClient(List<SpannerStub> stubs, ChannelSelection channelSelection,
+      Scheduler resultScheduler, int resultPrefetch) {
+    this.spanner =
+        new SpannerStubPool(stubs, channelSelection, resultScheduler, resultPrefetch);
+    this.channels = Collections.emptyList();
+  }
+
+  /**
+   * Creates an event loop group to share between clients, using the native epoll transport when
+   * it is available, as on Linux, and NIO otherwise.
+   *
+   * @param threads number of event loop threads, or 0 for the Netty default
+   * @return a new event loop group, which the caller must shut down when no longer needed
+   */
+  public static EventLoopGroup createEventLoopGroup(int threads) {
+    return Epoll.isAvailable()
+        ? new EpollEventLoopGroup(threads)
+        : new NioEventLoopGroup(threads);
+  }
+
+  /**
+   * Returns the socket channel type that works with an event loop group.
+   */
+  static Class<? extends Channel> socketChannelType(EventLoopGroup eventLoopGroup) {
+    return eventLoopGroup instanceof EpollEventLoopGroup
+        ? EpollSocketChannel.class
+        : NioSocketChannel.class;
+  }
+
+  private static ManagedChannel createChannel(SpannerConnectionConfiguration config) {
+    NettyChannelBuilder channelBuilder = NettyChannelBuilder
+        .forAddress(config.getHost(), config.getPort())
+        .flowControlWindow(config.getFlowControlWindow())
+        .maxInboundMessageSize(config.getMaxInboundMessageSize());
+    if (config.isUsePlaintext()) {
+      channelBuilder.usePlaintext();
+    }
+    // without an event loop group of its own, the channel uses the event loop that gRPC shares
+    // across the JVM, which is already epoll-based where available
+    if (config.getEventLoopGroup() != null) {
+      channelBuilder
+          .eventLoopGroup(config.getEventLoopGroup())
+          .channelType(config.getChannelType() != null
+              ? config.getChannelType()
+              : socketChannelType(config.getEventLoopGroup()));
+    }
+    if (config.isUseDirectExecutor()) {
+      channelBuilder.directExecutor();
+    } else if (config.getExecutor() != null) {
+      channelBuilder.executor(config.getExecutor());
+    }
+    return channelBuilder.build();
+  }
+
+  /**
+   * Returns the scheduler call results are published on. Callbacks running directly on Netty
+   * threads must not run user code or row decoding, so they always hand results over to a
+   * scheduler.
+   */
+  private static Scheduler resultScheduler(SpannerConnectionConfiguration config) {
+    if (config.getResultScheduler() != null) {
+      return config.getResultScheduler();
+    }
+    return config.isUseDirectExecutor() ? Schedulers.parallel() : null;
   }
 
   @Override
   public Mono<Transaction> beginTransaction(Session session) {
-    return Mono.defer(() -> {
+    return this.spanner.call(this.spanner.channelFor(session), stub -> {
       BeginTransactionRequest beginTransactionRequest =
           BeginTransactionRequest.newBuilder()
               .setSession(session.getName())
@@ -97,13 +233,13 @@ public class GrpcClient implements Client {
               .build();
 
       return ObservableReactiveUtil.unaryCall(
-          (obs) -> this.spanner.beginTransaction(beginTransactionRequest, obs));
+          (obs) -> stub.beginTransaction(beginTransactionRequest, obs));
     });
   }
 
   @Override
   public Mono<CommitResponse> commitTransaction(Session session, Transaction transaction) {
-    return Mono.defer(() -> {
+    return this.spanner.call(this.spanner.channelFor(session), stub -> {
       CommitRequest commitRequest =
           CommitRequest.newBuilder()
               .setSession(session.getName())
@@ -111,13 +247,13 @@ public class GrpcClient implements Client {
               .build();
 
       return ObservableReactiveUtil.unaryCall(
-          (obs) -> this.spanner.commit(commitRequest, obs));
+          (obs) -> stub.commit(commitRequest, obs));
     });
   }
 
   @Override
   public Mono<Void> rollbackTransaction(Session session, Transaction transaction) {
-    return Mono.defer(() -> {
+    return this.spanner.call(this.spanner.channelFor(session), stub -> {
       RollbackRequest rollbackRequest =
           RollbackRequest.newBuilder()
               .setSession(session.getName())
@@ -125,7 +261,7 @@ public class GrpcClient implements Client {
               .build();
 
       return ObservableReactiveUtil.<Empty>unaryCall(
-          (obs) -> this.spanner.rollback(rollbackRequest, obs))
+          (obs) -> stub.rollback(rollbackRequest, obs))
           .then();
     });
   }
@@ -133,26 +269,76 @@ public class GrpcClient implements Client {
   @Override
   public Mono<Session> createSession(String databaseName) {
     return Mono.defer(() -> {
-      CreateSessionRequest request = CreateSessionRequest.newBuilder()
+      int channel = this.spanner.selectChannel();
+      return this.spanner.call(channel, stub -> {
+        CreateSessionRequest request = CreateSessionRequest.newBuilder()
+            .setDatabase(databaseName)
+            .build();
+
+        return ObservableReactiveUtil.<Session>unaryCall(
+            (obs) -> stub.createSession(request, obs));
+      }).doOnNext(session -> this.spanner.pin(session, channel));
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Sessions stay on the channel they are created on, so the sessions are split over the
+   * channels with one {@code BatchCreateSessions} call per channel. A failed call does not
+   * prevent the sessions of the other calls from being returned before the error.
+   */
+  @Override
+  public Flux<Session> batchCreateSessions(String databaseName, int sessionCount) {
+    return Flux.defer(() -> {
+      if (sessionCount <= 0) {
+        return Flux.empty();
+      }
+      int channelCount = this.spanner.getChannelCount();
+      int sessionsPerChannel = (sessionCount + channelCount - 1) / channelCount;
+      int firstChannel = this.spanner.selectChannel();
+
+      List<Mono<BatchCreateSessionsResponse>> batches = new ArrayList<>();
+      for (int i = 0; i * sessionsPerChannel < sessionCount; i++) {
+        batches.add(batchCreateSessions(databaseName,
+            Math.min(sessionsPerChannel, sessionCount - i * sessionsPerChannel),
+            (firstChannel + i) % channelCount));
+      }
+      return Flux.fromIterable(batches).flatMapDelayError(batch -> batch, batches.size(), 1);
+    }).flatMapIterable(BatchCreateSessionsResponse::getSessionList);
+  }
+
+  private Mono<BatchCreateSessionsResponse> batchCreateSessions(
+      String databaseName, int sessionCount, int channel) {
+    return this.spanner.call(channel, stub -> {
+      BatchCreateSessionsRequest request = BatchCreateSessionsRequest.newBuilder()
           .setDatabase(databaseName)
+          .setSessionCount(sessionCount)
           .build();
 
-      return ObservableReactiveUtil.unaryCall((obs) -> this.spanner.createSession(request, obs));
-    });
+      return ObservableReactiveUtil.<BatchCreateSessionsResponse>unaryCall(
+          (obs) -> stub.batchCreateSessions(request, obs));
+    }).doOnNext(response -> response.getSessionList()
+        .forEach(session -> this.spanner.pin(session, channel)));
   }
 
   @Override
   public Mono<Void> deleteSession(Session session) {
-    return Mono.defer(() -> {
+    return this.spanner.call(this.spanner.channelFor(session), stub -> {
       DeleteSessionRequest deleteSessionRequest =
           DeleteSessionRequest.newBuilder()
               .setName(session.getName())
               .build();
 
       return ObservableReactiveUtil.<Empty>unaryCall(
-          (observer) -> this.spanner.deleteSession(deleteSessionRequest, observer))
+          (observer) -> stub.deleteSession(deleteSessionRequest, observer))
           .then();
-    });
+    }).doFinally(signal -> this.spanner.unpin(session));
+  }
+
+  @Override
+  public void forgetSession(Session session) {
+    this.spanner.unpin(session);
   }
 
   // TODO: add information about parameters being added to signature
@@ -162,24 +348,158 @@ public class GrpcClient implements Client {
     return transaction
         .map(t -> TransactionSelector.newBuilder().setId(t.getId()).build())
         .defaultIfEmpty(readOnlySingleUseTransaction())
-        .map(t ->  ExecuteSqlRequest.newBuilder()
-            .setSql(sql)
-            .setSession(session.getName())
-            .setTransaction(t)
-            .build())
-        .flatMapMany(request -> Flux.create(
-            sink -> {
-              SinkResponseObserver responseObserver = new SinkResponseObserver<>(sink);
+        .flatMapMany(t -> executeStreamingSqlWithSelector(session, t, sql));
+  }
+
+  @Override
+  public Flux<PartialResultSet> beginTransactionAndExecuteStreamingSql(
+      Session session, String sql) {
+    return Flux.defer(() -> executeStreamingSqlWithSelector(
+        session,
+        TransactionSelector.newBuilder()
+            .setBegin(
+                TransactionOptions
+                    .newBuilder()
+                    .setReadWrite(ReadWrite.getDefaultInstance()))
+            .build(),
+        sql));
+  }
+
+  private Flux<PartialResultSet> executeStreamingSqlWithSelector(
+      Session session, TransactionSelector transactionSelector, String sql) {
+    ExecuteSqlRequest request = ExecuteSqlRequest.newBuilder()
+        .setSql(sql)
+        .setSession(session.getName())
+        .setTransaction(transactionSelector)
+        .build();
+
+    return Flux.defer(() -> resumableResultBatches(session, new StreamResumption(request)))
+        .flatMapIterable(batch -> batch, 1);
+  }
+
+  /**
+   * Streams the results of a query in batches that each end at a resume token, resuming the
+   * query from the last token after a transient error.
+   *
+   * <p>A resumed stream sends again all results after the resume token it continues from, so
+   * results after the last token are held back until the next token or the end of the stream;
+   * the consumer thus sees neither duplicates nor gaps. At most {@link #MAX_BUFFERED_RESULTS}
+   * results are held back; beyond that they are released, and the query cannot be resumed until
+   * the next resume token. Errors are handled before the batches are flattened, so batches
+   * already handed over are never lost to a resumption.
+   */
+  private Flux<List<PartialResultSet>> resumableResultBatches(
+      Session session, StreamResumption resumption) {
+    return streamingSql(session, resumption.nextRequest())
+        .bufferUntil(resumption::isResumePoint)
+        .onErrorResume(resumption::canResume, e -> Mono.delay(resumption.nextBackoff())
+            .thenMany(resumableResultBatches(session, resumption)));
+  }
+
+  private Flux<PartialResultSet> streamingSql(Session session, ExecuteSqlRequest request) {
+    return this.spanner.streamingCall(this.spanner.channelFor(session), stub -> Flux.create(
+        sink -> {
+          SinkResponseObserver responseObserver = new SinkResponseObserver<>(sink);
+
+          stub.executeStreamingSql(request, responseObserver);
+
+          // must be invoked after the actual method so that the stream is already started
+          sink.onRequest(demand -> responseObserver.getRequestStream()
+              .request((int) Math.min(demand, Integer.MAX_VALUE)));
+        }));
+  }
+
+  /**
+   * Tracks the progress of a streaming query so that it can be resumed.
+   */
+  private static final class StreamResumption {
+
+    private static final int MAX_FAILED_ATTEMPTS = 10;
 
-              sink.onCancel(
-                  () -> responseObserver.getRequestStream().cancel("Flux requested cancel.", null));
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(100);
 
-              this.spanner.executeStreamingSql(request, responseObserver);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(32);
 
-              // must be invoked after the actual method so that the stream is already started
-              sink.onRequest(demand -> responseObserver.getRequestStream()
-                  .request((int) Math.min(demand, Integer.MAX_VALUE)));
-          }));
+    private final ExecuteSqlRequest request;
+
+    private ByteString resumeToken = ByteString.EMPTY;
+
+    private ByteString transactionId;
+
+    private int bufferedResults;
+
+    private boolean resumable = true;
+
+    private int failedAttempts;
+
+    StreamResumption(ExecuteSqlRequest request) {
+      this.request = request;
+    }
+
+    /**
+     * Returns the request continuing after the last resume token. A transaction begun by the
+     * original request is used, rather than begun again.
+     */
+    ExecuteSqlRequest nextRequest() {
+      ExecuteSqlRequest.Builder nextRequest = this.request.toBuilder()
+          .setResumeToken(this.resumeToken);
+      if (this.transactionId != null) {
+        nextRequest.setTransaction(TransactionSelector.newBuilder().setId(this.transactionId));
+      }
+      return nextRequest.build();
+    }
+
+    /**
+     * Returns whether the held back results may be released after this partial result set.
+     */
+    boolean isResumePoint(PartialResultSet partialResultSet) {
+      if (partialResultSet.getMetadata().hasTransaction()) {
+        this.transactionId = partialResultSet.getMetadata().getTransaction().getId();
+      }
+
+      if (!partialResultSet.getResumeToken().isEmpty()) {
+        this.resumeToken = partialResultSet.getResumeToken();
+        this.bufferedResults = 0;
+        this.resumable = true;
+        this.failedAttempts = 0;
+        return true;
+      }
+
+      if (this.resumeToken.isEmpty() && !this.request.getTransaction().hasSingleUse()) {
+        // a read-write query cannot start over, so holding results back gains nothing
+        this.resumable = false;
+      }
+      if (!this.resumable) {
+        return true;
+      }
+
+      if (++this.bufferedResults >= MAX_BUFFERED_RESULTS) {
+        // there is no resume token to continue from until the next one arrives
+        this.bufferedResults = 0;
+        this.resumable = false;
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Returns whether the query can resume after an error. Without a resume token, only a
+     * read-only query may start over; a read-write one could repeat its writes.
+     */
+    boolean canResume(Throwable error) {
+      return this.resumable
+          && this.failedAttempts < MAX_FAILED_ATTEMPTS
+          && (!this.resumeToken.isEmpty() || this.request.getTransaction().hasSingleUse())
+          && SpannerExceptionUtil.isResumable(error);
+    }
+
+    Duration nextBackoff() {
+      // the held back results are discarded, and sent again by the resumed stream
+      this.bufferedResults = 0;
+      Duration backoff = INITIAL_BACKOFF.multipliedBy(1L << Math.min(this.failedAttempts, 10));
+      this.failedAttempts++;
+      return backoff.compareTo(MAX_BACKOFF) < 0 ? backoff : MAX_BACKOFF;
+    }
   }
 
   private static final class SinkResponseObserver<ReqT, RespT> implements
@@ -211,6 +531,8 @@ public class GrpcClient implements Client {
     public void beforeStart(ClientCallStreamObserver<ReqT> requestStream) {
       this.requestStream = requestStream;
       requestStream.disableAutoInboundFlowControl();
+      // registered once the call exists; runs right away if the subscriber already cancelled
+      sink.onCancel(() -> requestStream.cancel("Flux requested cancel.", null));
     }
 
     public ClientCallStreamObserver<ReqT> getRequestStream() {
@@ -220,11 +542,7 @@ public class GrpcClient implements Client {
 
   @Override
   public Mono<Void> close() {
-    return Mono.fromRunnable(() -> {
-      if (this.channel != null) {
-        this.channel.shutdownNow();
-      }
-    });
+    return Mono.fromRunnable(() -> this.channels.forEach(ManagedChannel::shutdownNow));
   }
 
   /**
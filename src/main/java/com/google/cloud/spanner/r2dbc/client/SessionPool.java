@@ -0,0 +1,690 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.client;
+
+import com.google.cloud.spanner.r2dbc.SpannerConnectionConfiguration;
+import com.google.cloud.spanner.r2dbc.util.Assert;
+import com.google.spanner.v1.Session;
+import com.google.spanner.v1.Transaction;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.annotation.Nullable;
+
+/**
+ * A non-blocking pool of Cloud Spanner {@link Session}s.
+ *
+ * <p>Sessions are handed out by {@link #acquire()} and handed back with {@link #release(Session)}
+ * instead of being deleted, so that opening a connection does not cost a session creation
+ * round-trip. When no idle session is available and the pool is at capacity, callers queue up
+ * (up to a bounded number of waiters) until a session is released or the acquire timeout
+ * elapses.
+ *
+ * <p>A single periodic maintenance task, started with {@link #startMaintenance()}, keeps idle
+ * sessions alive with a cheap {@code SELECT 1} before Spanner garbage-collects them, deletes
+ * idle sessions in excess of the configured idle count, and replaces sessions that turned out to
+ * be gone.
+ *
+ * <p>A configurable fraction of the sessions is kept write-prepared: a read-write transaction is
+ * begun on them in the background, so that a connection beginning a transaction can switch to
+ * such a session and skip the {@code BeginTransaction} round-trip. Write-prepared sessions are
+ * kept apart from the other idle sessions and are only handed out by
+ * {@link #takePreparedSession()}, or by {@link #acquire()} when no other session is idle. Spanner
+ * aborts read-write transactions left idle for about ten seconds, so prepared transactions are
+ * begun anew every {@link #PREPARED_TRANSACTION_REFRESH_INTERVAL}, and never handed out once
+ * older than {@link #PREPARED_TRANSACTION_MAX_AGE}. Transactions are only kept prepared while
+ * the pool is asked for them; once none has been asked for during
+ * {@link #PREPARED_TRANSACTION_DEMAND_WINDOW}, the sessions go back to being plain idle sessions.
+ *
+ * <p>The pool state is guarded by the pool's monitor; no remote call is ever made while holding
+ * it.
+ */
+public class SessionPool {
+
+  /**
+   * Age after which a transaction begun ahead of time is no longer handed out, well before Spanner
+   * aborts it for being idle.
+   */
+  static final Duration PREPARED_TRANSACTION_MAX_AGE = Duration.ofSeconds(5);
+
+  /**
+   * Interval at which prepared transactions past half their maximum age are begun anew, so that
+   * each is replaced before it expires.
+   */
+  static final Duration PREPARED_TRANSACTION_REFRESH_INTERVAL =
+      PREPARED_TRANSACTION_MAX_AGE.dividedBy(2);
+
+  /**
+   * Time after the last request for a prepared transaction during which transactions keep being
+   * prepared.
+   */
+  static final Duration PREPARED_TRANSACTION_DEMAND_WINDOW = Duration.ofMinutes(1);
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final Client client;
+
+  private final String databaseName;
+
+  private final int minSessions;
+
+  private final int maxSessions;
+
+  private final int maxWaiters;
+
+  private final Duration acquireTimeout;
+
+  private final int maxIdleSessions;
+
+  private final Duration maintenanceInterval;
+
+  private final Duration keepAliveInterval;
+
+  private final double writeSessionsFraction;
+
+  private final Clock clock;
+
+  /**
+   * Idle sessions without a prepared transaction, most recently released first.
+   */
+  private final Deque<IdleSession> idleSessions = new ArrayDeque<>();
+
+  /**
+   * Idle sessions with a read-write transaction begun ahead of time, most recently prepared first.
+   */
+  private final Deque<PreparedSession> preparedSessions = new ArrayDeque<>();
+
+  private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+  /**
+   * Number of sessions currently taken out of the idle sessions to begin a transaction on them.
+   */
+  private int preparingSessions;
+
+  /**
+   * Time a prepared transaction was last asked for.
+   */
+  private long preparedDemandMillis;
+
+  /**
+   * Number of sessions owned by the pool, including sessions being created and sessions in use.
+   */
+  private int totalSessions;
+
+  private boolean closed;
+
+  private Disposable maintenance;
+
+  private Disposable preparedRefresh;
+
+  /**
+   * Creates a session pool for the database described by {@code config}.
+   *
+   * @param client client used to create and delete sessions
+   * @param config connection configuration holding the database name and pool sizing
+   */
+  public SessionPool(Client client, SpannerConnectionConfiguration config) {
+    this(client, config, Clock.systemUTC());
+  }
+
+  SessionPool(Client client, SpannerConnectionConfiguration config, Clock clock) {
+    this.client = Assert.requireNonNull(client, "Spanner client must not be null");
+    Assert.requireNonNull(config, "Spanner configuration must not be null");
+    this.databaseName = config.getFullyQualifiedDatabaseName();
+    this.minSessions = config.getMinSessions();
+    this.maxSessions = config.getMaxSessions();
+    this.maxWaiters = config.getMaxSessionWaiters();
+    this.acquireTimeout = config.getSessionAcquireTimeout();
+    this.maxIdleSessions = config.getMaxIdleSessions();
+    this.maintenanceInterval = config.getSessionMaintenanceInterval();
+    this.keepAliveInterval = config.getSessionKeepAliveInterval();
+    this.writeSessionsFraction = config.getWriteSessionsFraction();
+    this.clock = clock;
+    // a new pool prepares transactions until it turns out that none are asked for
+    this.preparedDemandMillis = clock.millis();
+  }
+
+  /**
+   * Opens sessions until the pool holds at least the configured minimum number of sessions.
+   *
+   * <p>Sessions are created in bulk with {@code BatchCreateSessions} rather than one
+   * {@code CreateSession} call per session.
+   *
+   * @return {@link Mono} indicating completion once the new sessions are idle in the pool
+   */
+  public Mono<Void> warmUp() {
+    return Mono.defer(() -> {
+      int sessionsToCreate;
+      synchronized (this) {
+        sessionsToCreate = this.closed ? 0 : Math.max(0, this.minSessions - this.totalSessions);
+        this.totalSessions += sessionsToCreate;
+      }
+
+      if (sessionsToCreate == 0) {
+        return Mono.empty();
+      }
+
+      AtomicInteger sessionsCreated = new AtomicInteger();
+      return batchCreateSessions(sessionsToCreate)
+          .doOnNext(session -> sessionsCreated.incrementAndGet())
+          .flatMap(this::returnToPool)
+          .doFinally(signal -> forgetSessions(sessionsToCreate - sessionsCreated.get()))
+          .then(Mono.fromRunnable(this::prepareWriteSessions));
+    });
+  }
+
+  /**
+   * Starts the periodic maintenance of idle sessions, and the refresh of prepared transactions if
+   * sessions are write-prepared. Both stop when the pool is closed.
+   */
+  public synchronized void startMaintenance() {
+    if (this.maintenance == null && !this.closed) {
+      this.maintenance = Flux.interval(this.maintenanceInterval)
+          .onBackpressureDrop()
+          .concatMap(tick -> maintain()
+              .onErrorResume(e -> {
+                this.logger.warn("Session pool maintenance failed.", e);
+                return Mono.empty();
+              }))
+          .subscribe();
+      if (this.writeSessionsFraction > 0) {
+        this.preparedRefresh = Flux.interval(PREPARED_TRANSACTION_REFRESH_INTERVAL)
+            .subscribe(tick -> prepareWriteSessions());
+      }
+    }
+  }
+
+  /**
+   * Performs a single round of maintenance on the idle sessions.
+   *
+   * <p>Idle sessions beyond the maximum idle count that have not been used for a full maintenance
+   * interval are deleted, least recently used first, as long as the pool keeps its minimum size.
+   * Sessions idle for longer than the keep-alive interval are pinged; those that fail the ping are
+   * dropped. Finally, the pool is topped back up to its minimum size and write-prepared sessions
+   * are replenished.
+   *
+   * @return {@link Mono} indicating completion of the maintenance round
+   */
+  Mono<Void> maintain() {
+    return Mono.defer(() -> {
+      List<Session> sessionsToEvict = new ArrayList<>();
+      List<Session> sessionsToPing = new ArrayList<>();
+      long now = this.clock.millis();
+
+      synchronized (this) {
+        if (this.closed) {
+          return Mono.empty();
+        }
+
+        while (this.idleSessions.size() > this.maxIdleSessions
+            && this.totalSessions > this.minSessions
+            && now - this.idleSessions.peekLast().lastUsedMillis
+                >= this.maintenanceInterval.toMillis()) {
+          sessionsToEvict.add(this.idleSessions.pollLast().session);
+          this.totalSessions--;
+        }
+
+        Iterator<IdleSession> iterator = this.idleSessions.iterator();
+        while (iterator.hasNext()) {
+          IdleSession idleSession = iterator.next();
+          if (now - idleSession.lastUsedMillis >= this.keepAliveInterval.toMillis()) {
+            iterator.remove();
+            sessionsToPing.add(idleSession.session);
+          }
+        }
+      }
+
+      return Flux.merge(
+          Flux.fromIterable(sessionsToEvict).flatMap(this::deleteQuietly),
+          Flux.fromIterable(sessionsToPing).flatMap(this::keepAlive))
+          .then(warmUp())
+          .then(Mono.fromRunnable(this::prepareWriteSessions));
+    });
+  }
+
+  /**
+   * Acquires a session from the pool, creating a new one if none is idle and the pool is not at
+   * capacity. Write-prepared sessions are only handed out, abandoning their transaction, when no
+   * other session is idle.
+   *
+   * @return {@link Mono} of a session for exclusive use until it is released
+   */
+  public Mono<Session> acquire() {
+    return Mono.<Session>create(sink -> {
+      Waiter waiter = new Waiter(sink);
+      sink.onCancel(() -> cancel(waiter));
+
+      Session idleSession = null;
+      boolean createSession = false;
+      Throwable error = null;
+
+      synchronized (this) {
+        if (this.closed) {
+          error = new IllegalStateException("The session pool is closed.");
+        } else if (!this.idleSessions.isEmpty()) {
+          idleSession = this.idleSessions.pollFirst().session;
+        } else if (!this.preparedSessions.isEmpty()) {
+          idleSession = this.preparedSessions.pollLast().session;
+        } else if (this.totalSessions < this.maxSessions) {
+          this.totalSessions++;
+          createSession = true;
+        } else if (this.waiters.size() < this.maxWaiters) {
+          this.waiters.addLast(waiter);
+        } else {
+          error = new IllegalStateException(
+              "No session available and the maximum of " + this.maxWaiters
+                  + " waiters for a session has been reached.");
+        }
+      }
+
+      if (error != null) {
+        waiter.error(error);
+      } else if (idleSession != null) {
+        waiter.complete(idleSession);
+      } else if (createSession) {
+        createSession(waiter);
+      }
+    }).timeout(this.acquireTimeout, Mono.defer(() -> Mono.error(new TimeoutException(
+        "Timed out after " + this.acquireTimeout + " waiting for a Spanner session."))));
+  }
+
+  /**
+   * Creates a session for a caller, for which room has already been made in the session count.
+   */
+  private void createSession(Waiter waiter) {
+    this.client.createSession(this.databaseName)
+        .subscribe(
+            session -> {
+              if (!waiter.complete(session)) {
+                release(session).subscribe();
+              }
+            },
+            e -> {
+              forgetSessions(1);
+              waiter.error(e);
+            });
+  }
+
+  /**
+   * Returns a session to the pool, handing it straight to the longest waiting caller if there
+   * is one. Sessions released after the pool is closed are deleted.
+   *
+   * @param session a session previously obtained from {@link #acquire()} or
+   *     {@link #takePreparedSession()}
+   * @return {@link Mono} indicating completion of the release
+   */
+  public Mono<Void> release(Session session) {
+    return returnToPool(session).then(Mono.fromRunnable(this::prepareWriteSessions));
+  }
+
+  /**
+   * Takes a write-prepared session out of the pool, for a connection about to begin a read-write
+   * transaction. The session is for exclusive use until it is released, like a session obtained
+   * from {@link #acquire()}.
+   *
+   * <p>Transactions prepared longer than {@link #PREPARED_TRANSACTION_MAX_AGE} ago are never
+   * handed out, since Spanner may already have aborted them.
+   *
+   * @return the session along with its prepared transaction, or {@code null} if no session is
+   *     write-prepared
+   */
+  @Nullable
+  public synchronized PreparedSession takePreparedSession() {
+    if (this.closed) {
+      return null;
+    }
+    long now = this.clock.millis();
+    this.preparedDemandMillis = now;
+    unprepareSessionsOlderThan(PREPARED_TRANSACTION_MAX_AGE, now);
+    return this.preparedSessions.pollFirst();
+  }
+
+  /**
+   * Begins read-write transactions in the background on idle sessions until the configured
+   * fraction of the pool is write-prepared, first taking back the prepared sessions whose
+   * transaction would expire before the next refresh. No transactions are prepared while none
+   * are asked for.
+   */
+  private void prepareWriteSessions() {
+    List<Session> sessionsToPrepare = new ArrayList<>();
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+
+      long now = this.clock.millis();
+      unprepareSessionsOlderThan(
+          PREPARED_TRANSACTION_MAX_AGE.minus(PREPARED_TRANSACTION_REFRESH_INTERVAL), now);
+
+      int target = now - this.preparedDemandMillis < PREPARED_TRANSACTION_DEMAND_WINDOW.toMillis()
+          ? (int) Math.ceil(this.writeSessionsFraction * this.totalSessions)
+          : 0;
+      while (this.preparedSessions.size() + this.preparingSessions < target
+          && !this.idleSessions.isEmpty()) {
+        this.preparingSessions++;
+        sessionsToPrepare.add(this.idleSessions.pollFirst().session);
+      }
+    }
+
+    sessionsToPrepare.forEach(session -> {
+      long preparedMillis = this.clock.millis();
+      Mono.defer(() -> this.client.beginTransaction(session))
+          .subscribe(
+              transaction -> {
+                synchronized (this) {
+                  this.preparingSessions--;
+                }
+                returnPrepared(new PreparedSession(session, transaction, preparedMillis))
+                    .subscribe();
+              },
+              e -> {
+                this.logger.debug("Failed to prepare session " + session.getName(), e);
+                synchronized (this) {
+                  this.preparingSessions--;
+                }
+                returnToPool(session).subscribe();
+              });
+    });
+  }
+
+  /**
+   * Moves the write-prepared sessions whose transaction was begun at least {@code age} ago back
+   * to the plain idle sessions, abandoning their transaction.
+   */
+  private void unprepareSessionsOlderThan(Duration age, long now) {
+    while (!this.preparedSessions.isEmpty()
+        && now - this.preparedSessions.peekLast().preparedMillis >= age.toMillis()) {
+      PreparedSession preparedSession = this.preparedSessions.pollLast();
+      this.idleSessions.addLast(
+          new IdleSession(preparedSession.session, preparedSession.preparedMillis));
+    }
+  }
+
+  /**
+   * Hands a session to the longest waiting caller, or makes it idle if nobody is waiting.
+   */
+  private Mono<Void> returnToPool(Session session) {
+    return returnToPool(session, null);
+  }
+
+  /**
+   * Hands a write-prepared session to the longest waiting caller, abandoning its transaction, or
+   * keeps it write-prepared if nobody is waiting.
+   */
+  private Mono<Void> returnPrepared(PreparedSession preparedSession) {
+    return returnToPool(preparedSession.session, preparedSession);
+  }
+
+  private Mono<Void> returnToPool(Session session, @Nullable PreparedSession preparedSession) {
+    return Mono.defer(() -> {
+      while (true) {
+        Waiter waiter;
+        synchronized (this) {
+          if (this.closed) {
+            this.totalSessions--;
+            return this.client.deleteSession(session);
+          }
+          waiter = this.waiters.pollFirst();
+          if (waiter == null) {
+            if (preparedSession != null) {
+              this.preparedSessions.addFirst(preparedSession);
+            } else {
+              this.idleSessions.addFirst(new IdleSession(session, this.clock.millis()));
+            }
+            return Mono.empty();
+          }
+        }
+
+        if (waiter.complete(session)) {
+          return Mono.empty();
+        }
+      }
+    });
+  }
+
+  /**
+   * Replaces a session that Spanner no longer knows about with another session from the pool.
+   *
+   * <p>The expired session is dropped from the pool rather than released, since it can no longer
+   * be used.
+   *
+   * @param expiredSession an in-use session for which Spanner reported "Session not found"
+   * @return {@link Mono} of a session to use in place of {@code expiredSession}
+   */
+  public Mono<Session> replace(Session expiredSession) {
+    return Mono.defer(() -> {
+      this.logger.debug("Replacing expired session " + expiredSession.getName());
+      this.client.forgetSession(expiredSession);
+      forgetSessions(1);
+      return acquire();
+    });
+  }
+
+  /**
+   * Closes the pool, failing any pending waiters and deleting all idle sessions. Sessions that
+   * are in use are deleted when they are released.
+   *
+   * @return {@link Mono} indicating completion of deleting the idle sessions
+   */
+  public Mono<Void> close() {
+    return Mono.defer(() -> {
+      List<Session> sessionsToDelete;
+      List<Waiter> pendingWaiters;
+      synchronized (this) {
+        this.closed = true;
+        if (this.maintenance != null) {
+          this.maintenance.dispose();
+        }
+        if (this.preparedRefresh != null) {
+          this.preparedRefresh.dispose();
+        }
+        sessionsToDelete = new ArrayList<>();
+        this.idleSessions.forEach(idleSession -> sessionsToDelete.add(idleSession.session));
+        this.idleSessions.clear();
+        this.preparedSessions.forEach(
+            preparedSession -> sessionsToDelete.add(preparedSession.session));
+        this.preparedSessions.clear();
+        this.totalSessions -= sessionsToDelete.size();
+        pendingWaiters = new ArrayList<>(this.waiters);
+        this.waiters.clear();
+      }
+
+      pendingWaiters.forEach(
+          waiter -> waiter.error(new IllegalStateException("The session pool is closed.")));
+
+      return Flux.fromIterable(sessionsToDelete)
+          .flatMap(this::deleteQuietly)
+          .then();
+    });
+  }
+
+  /**
+   * Returns the number of sessions owned by the pool, whether idle, in use or being created.
+   */
+  public synchronized int getTotalSessions() {
+    return this.totalSessions;
+  }
+
+  /**
+   * Returns the number of sessions sitting idle in the pool, including write-prepared ones.
+   */
+  public synchronized int getIdleSessions() {
+    return this.idleSessions.size() + this.preparedSessions.size();
+  }
+
+  /**
+   * Returns the number of sessions with a read-write transaction begun ahead of time.
+   */
+  public synchronized int getPreparedSessions() {
+    return this.preparedSessions.size();
+  }
+
+  /**
+   * Creates exactly {@code sessionCount} sessions, issuing further batch requests when Spanner
+   * returns fewer sessions than requested. Gives up if a batch yields no sessions at all.
+   */
+  private Flux<Session> batchCreateSessions(int sessionCount) {
+    return this.client.batchCreateSessions(this.databaseName, sessionCount)
+        .collectList()
+        .flatMapMany(sessions -> {
+          int remaining = sessionCount - sessions.size();
+          Flux<Session> created = Flux.fromIterable(sessions);
+          return sessions.isEmpty() || remaining <= 0
+              ? created
+              : created.concatWith(batchCreateSessions(remaining));
+        });
+  }
+
+  /**
+   * Pings an idle session and returns it to the pool, or drops it from the pool if the ping fails
+   * (typically because Spanner already deleted the session).
+   */
+  private Mono<Void> keepAlive(Session session) {
+    return this.client.executeStreamingSql(session, Mono.empty(), "SELECT 1")
+        .then(Mono.defer(() -> returnToPool(session)))
+        .onErrorResume(e -> {
+          this.logger.debug(
+              "Dropping session " + session.getName() + " that failed keep-alive.", e);
+          this.client.forgetSession(session);
+          forgetSessions(1);
+          return Mono.empty();
+        });
+  }
+
+  private Mono<Void> deleteQuietly(Session session) {
+    return this.client.deleteSession(session)
+        .onErrorResume(e -> {
+          this.logger.warn("Failed to delete session " + session.getName(), e);
+          return Mono.empty();
+        });
+  }
+
+  /**
+   * Removes sessions that were never created or have been lost from the pool's session count.
+   * Callers waiting for a session get a new one created in the room made.
+   */
+  private void forgetSessions(int sessionCount) {
+    List<Waiter> waitersToServe = new ArrayList<>();
+    synchronized (this) {
+      this.totalSessions -= sessionCount;
+      while (!this.closed && this.totalSessions < this.maxSessions && !this.waiters.isEmpty()) {
+        waitersToServe.add(this.waiters.pollFirst());
+        this.totalSessions++;
+      }
+    }
+    waitersToServe.forEach(this::createSession);
+  }
+
+  private synchronized void cancel(Waiter waiter) {
+    waiter.cancel();
+    this.waiters.remove(waiter);
+  }
+
+  /**
+   * An idle session along with the time it was last returned to the pool.
+   */
+  private static final class IdleSession {
+
+    private final Session session;
+
+    private final long lastUsedMillis;
+
+    IdleSession(Session session, long lastUsedMillis) {
+      this.session = session;
+      this.lastUsedMillis = lastUsedMillis;
+    }
+  }
+
+  /**
+   * An idle session with a read-write transaction begun on it ahead of time.
+   */
+  public static final class PreparedSession {
+
+    private final Session session;
+
+    private final Transaction transaction;
+
+    private final long preparedMillis;
+
+    /**
+     * Creates a write-prepared session.
+     *
+     * @param session the session
+     * @param transaction the read-write transaction begun on the session
+     * @param preparedMillis the time the transaction was begun
+     */
+    public PreparedSession(Session session, Transaction transaction, long preparedMillis) {
+      this.session = session;
+      this.transaction = transaction;
+      this.preparedMillis = preparedMillis;
+    }
+
+    public Session getSession() {
+      return this.session;
+    }
+
+    public Transaction getTransaction() {
+      return this.transaction;
+    }
+  }
+
+  /**
+   * A caller waiting for a session. Completion races with cancellation, so a waiter accepts at
+   * most one session and reports whether it did so the session is never lost.
+   */
+  private static final class Waiter {
+
+    private final MonoSink<Session> sink;
+
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    Waiter(MonoSink<Session> sink) {
+      this.sink = sink;
+    }
+
+    boolean complete(Session session) {
+      if (this.done.compareAndSet(false, true)) {
+        this.sink.success(session);
+        return true;
+      }
+      return false;
+    }
+
+    void error(Throwable throwable) {
+      if (this.done.compareAndSet(false, true)) {
+        this.sink.error(throwable);
+      }
+    }
+
+    void cancel() {
+      this.done.set(true);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.client;
+
+import com.google.cloud.spanner.r2dbc.SpannerConnectionConfiguration;
+import com.google.cloud.spanner.r2dbc.util.Assert;
+import com.google.spanner.v1.Session;
+import com.google.spanner.v1.SpannerGrpc.SpannerStub;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * A fixed set of {@link SpannerStub}s, each on its own gRPC channel.
+ *
+ * <p>A single HTTP/2 connection caps the number of concurrent streams, so calls are spread
+ * over several channels. Calls that are not bound to a session go to a channel picked by the
+ * {@link ChannelSelection}; calls on a session go to the channel the session was created on.
+ */
+class SpannerStubPool {
+
+  private final SpannerStub[] stubs;
+
+  private final ChannelSelection channelSelection;
+
+  private final AtomicIntegerArray callsInFlight;
+
+  private final AtomicInteger nextChannel = new AtomicInteger();
+
+  private final Map<String, Integer> sessionChannels = new ConcurrentHashMap<>();
+
+  private final Scheduler resultScheduler;
+
+  private final int resultPrefetch;
+
+  SpannerStubPool(List<SpannerStub> stubs, ChannelSelection channelSelection) {
+    this(stubs, channelSelection, null, SpannerConnectionConfiguration.DEFAULT_RESULT_PREFETCH);
+  }
+
+  /**
+   * Creates a pool whose call results are published on {@code resultScheduler}, so that
+   * callbacks running on network threads only hand results over. Streaming calls then request
+   * at most {@code resultPrefetch} results ahead of the consumer.
+   */
+  SpannerStubPool(List<SpannerStub> stubs, ChannelSelection channelSelection,
+      Scheduler resultScheduler, int resultPrefetch) {
+    Assert.isTrue(!stubs.isEmpty(), "At least one stub is required");
+    Assert.isTrue(resultPrefetch > 0, "resultPrefetch must be positive");
+    this.stubs = stubs.toArray(new SpannerStub[0]);
+    this.channelSelection =
+        Assert.requireNonNull(channelSelection, "channelSelection must not be null");
+    this.callsInFlight = new AtomicIntegerArray(this.stubs.length);
+    this.resultScheduler = resultScheduler;
+    this.resultPrefetch = resultPrefetch;
+  }
+
+  /**
+   * Picks the channel for a call that is not bound to a session.
+   * @return index of the channel
+   */
+  int selectChannel() {
+    int channelCount = this.stubs.length;
+    if (channelCount == 1) {
+      return 0;
+    }
+
+    // rotating the starting point spreads calls evenly among equally loaded channels
+    int start = Math.floorMod(this.nextChannel.getAndIncrement(), channelCount);
+    if (this.channelSelection == ChannelSelection.ROUND_ROBIN) {
+      return start;
+    }
+
+    int selected = start;
+    int selectedInFlight = this.callsInFlight.get(start);
+    for (int i = 1; i < channelCount && selectedInFlight > 0; i++) {
+      int channel = (start + i) % channelCount;
+      int inFlight = this.callsInFlight.get(channel);
+      if (inFlight < selectedInFlight) {
+        selected = channel;
+        selectedInFlight = inFlight;
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Returns the channel a session is pinned to. Sessions not created through this pool are
+   * assigned a channel by their name.
+   * @param session the session the call is made on
+   * @return index of the channel
+   */
+  int channelFor(Session session) {
+    Integer channel = this.sessionChannels.get(session.getName());
+    return channel != null
+        ? channel
+        : Math.floorMod(session.getName().hashCode(), this.stubs.length);
+  }
+
+  void pin(Session session, int channel) {
+    this.sessionChannels.put(session.getName(), channel);
+  }
+
+  void unpin(Session session) {
+    this.sessionChannels.remove(session.getName());
+  }
+
+  int getChannelCount() {
+    return this.stubs.length;
+  }
+
+  int getCallsInFlight(int channel) {
+    return this.callsInFlight.get(channel);
+  }
+
+  /**
+   * Makes a call on a channel, counting it as in flight until it terminates or is cancelled.
+   */
+  <T> Mono<T> call(int channel, Function<SpannerStub, Mono<T>> call) {
+    Mono<T> result = Mono.defer(() -> {
+      this.callsInFlight.incrementAndGet(channel);
+      return call.apply(this.stubs[channel])
+          .doFinally(signal -> this.callsInFlight.decrementAndGet(channel));
+    });
+    return this.resultScheduler == null ? result : result.publishOn(this.resultScheduler);
+  }
+
+  /**
+   * Makes a streaming call on a channel, counting it as in flight until it terminates or is
+   * cancelled.
+   */
+  <T> Flux<T> streamingCall(int channel, Function<SpannerStub, Flux<T>> call) {
+    Flux<T> result = Flux.defer(() -> {
+      this.callsInFlight.incrementAndGet(channel);
+      return call.apply(this.stubs[channel])
+          .doFinally(signal -> this.callsInFlight.decrementAndGet(channel));
+    });
+    // the scheduler hand-over must not request more than the consumer prefetches from the call
+    return this.resultScheduler == null
+        ? result
+        : result.publishOn(this.resultScheduler, this.resultPrefetch);
+  }
+}
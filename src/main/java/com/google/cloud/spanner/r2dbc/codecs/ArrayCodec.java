@@ -26,9 +26,18 @@ final class ArrayCodec<A> extends SpannerCodec<A[]> {
 
   private Codecs codecs;
 
-  ArrayCodec(Codecs codecs, Class<A[]> klass) {
+  private TypeCode elementTypeCode;
+
+  ArrayCodec(Codecs codecs, Class<A[]> klass, TypeCode elementTypeCode) {
     super(klass, TypeCode.ARRAY, null);
     this.codecs = codecs;
+    this.elementTypeCode = elementTypeCode;
+  }
+
+  @Override
+  public boolean canDecode(Type dataType, Class<?> type) {
+    return super.canDecode(dataType, type)
+        && dataType.getArrayElementType().getCode() == this.elementTypeCode;
   }
 
   @Override
@@ -20,7 +20,14 @@ import com.google.protobuf.Value;
 import com.google.spanner.v1.Type;
 import reactor.util.annotation.Nullable;
 
-interface Codec<T> {
+/**
+ * Encodes and decodes values of one Java type to and from Spanner {@link Value}s.
+ *
+ * <p>Codecs can be registered with {@link DefaultCodecs} in addition to the built-in ones.
+ *
+ * @param <T> the Java type handled by the codec
+ */
+public interface Codec<T> {
 
   /**
    * Indicates if the codec can decode a value.
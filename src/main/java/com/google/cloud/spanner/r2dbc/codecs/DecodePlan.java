@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.codecs;
+
+import com.google.cloud.spanner.r2dbc.codecs.DefaultCodecs.DecoderIndex;
+import com.google.cloud.spanner.r2dbc.util.Assert;
+import com.google.protobuf.Value;
+import com.google.protobuf.Value.KindCase;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import reactor.util.annotation.Nullable;
+
+/**
+ * Decodes the columns of the rows of one result set.
+ *
+ * <p>The plan is compiled once from the column types of the result set. For each column it keeps
+ * the index of the codecs that can decode the Spanner type of the column, and the codec resolved
+ * for the Java type the column was last read as. Rows reading a column as the same Java type as
+ * the previous row use that codec directly.
+ */
+public final class DecodePlan {
+
+  private final Type[] columnTypes;
+
+  private final DecoderIndex[] decoderIndexes;
+
+  private final ResolvedCodec[] resolvedCodecs;
+
+  DecodePlan(DefaultCodecs codecs, Type[] columnTypes) {
+    this.columnTypes = columnTypes;
+    this.decoderIndexes = new DecoderIndex[columnTypes.length];
+    this.resolvedCodecs = new ResolvedCodec[columnTypes.length];
+    for (int i = 0; i < columnTypes.length; i++) {
+      this.decoderIndexes[i] = codecs.getDecoderIndex(columnTypes[i]);
+    }
+  }
+
+  /**
+   * Returns the number of columns the plan decodes.
+   *
+   * @return the number of columns
+   */
+  public int getColumnCount() {
+    return this.columnTypes.length;
+  }
+
+  /**
+   * Decodes a value of a column.
+   *
+   * @param columnIndex the index of the column the value belongs to
+   * @param value the {@link Value} object containing the value to decode
+   * @param type the type to decode to
+   * @param <T> the type of item being returned
+   * @return the decoded value
+   * @throws IllegalArgumentException if the column cannot be decoded to {@code type}
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public <T> T decode(int columnIndex, Value value, Class<? extends T> type) {
+    ResolvedCodec resolvedCodec = this.resolvedCodecs[columnIndex];
+    if (resolvedCodec == null || resolvedCodec.type != type) {
+      resolvedCodec = new ResolvedCodec(type, resolve(columnIndex, type));
+      this.resolvedCodecs[columnIndex] = resolvedCodec;
+    }
+    return ((Codec<T>) resolvedCodec.codec).decode(value, this.columnTypes[columnIndex], type);
+  }
+
+  /**
+   * Decodes a value of an {@code INT64} column without boxing it.
+   *
+   * @param columnIndex the index of the column the value belongs to
+   * @param value the {@link Value} object containing the value to decode
+   * @return the decoded value
+   * @throws IllegalArgumentException if the column is not of type {@code INT64}
+   * @throws NullPointerException if the value is {@code NULL}
+   */
+  public long decodeLong(int columnIndex, Value value) {
+    checkColumn(columnIndex, value, TypeCode.INT64, long.class);
+    return ValueUtils.decodeInt64(this.columnTypes[columnIndex], value);
+  }
+
+  /**
+   * Decodes a value of a {@code FLOAT64} column without boxing it.
+   *
+   * @param columnIndex the index of the column the value belongs to
+   * @param value the {@link Value} object containing the value to decode
+   * @return the decoded value
+   * @throws IllegalArgumentException if the column is not of type {@code FLOAT64}
+   * @throws NullPointerException if the value is {@code NULL}
+   */
+  public double decodeDouble(int columnIndex, Value value) {
+    checkColumn(columnIndex, value, TypeCode.FLOAT64, double.class);
+    return ValueUtils.decodeFloat64(value);
+  }
+
+  /**
+   * Decodes a value of a {@code BOOL} column without boxing it.
+   *
+   * @param columnIndex the index of the column the value belongs to
+   * @param value the {@link Value} object containing the value to decode
+   * @return the decoded value
+   * @throws IllegalArgumentException if the column is not of type {@code BOOL}
+   * @throws NullPointerException if the value is {@code NULL}
+   */
+  public boolean decodeBoolean(int columnIndex, Value value) {
+    checkColumn(columnIndex, value, TypeCode.BOOL, boolean.class);
+    return ValueUtils.decodeBool(this.columnTypes[columnIndex], value);
+  }
+
+  private void checkColumn(int columnIndex, Value value, TypeCode typeCode, Class<?> type) {
+    if (this.columnTypes[columnIndex].getCode() != typeCode) {
+      throw new IllegalArgumentException(String.format("Cannot decode value of type %s to %s",
+          this.columnTypes[columnIndex], type.getName()));
+    }
+    if (value.getKindCase() == KindCase.NULL_VALUE) {
+      throw new NullPointerException(
+          "Column " + columnIndex + " is NULL and cannot be decoded to " + type.getName());
+    }
+  }
+
+  private Codec<?> resolve(int columnIndex, Class<?> type) {
+    Assert.requireNonNull(type, "type must not be null");
+
+    Codec<?> codec = this.decoderIndexes[columnIndex].get(type);
+    if (codec == null) {
+      throw new IllegalArgumentException(String.format("Cannot decode value of type %s to %s",
+          this.columnTypes[columnIndex], type.getName()));
+    }
+    return codec;
+  }
+
+  /**
+   * A codec resolved for a column, and the Java type it was resolved for. Immutable, so that rows
+   * read on different threads see either a complete resolution or none.
+   */
+  private static final class ResolvedCodec {
+
+    private final Class<?> type;
+
+    private final Codec<?> codec;
+
+    private ResolvedCodec(Class<?> type, Codec<?> codec) {
+      this.type = type;
+      this.codec = codec;
+    }
+  }
+}
@@ -17,66 +17,135 @@
 package com.google.cloud.spanner.r2dbc.codecs;
 
 import com.google.cloud.spanner.r2dbc.util.Assert;
+import com.google.protobuf.ListValue;
 import com.google.protobuf.NullValue;
 import com.google.protobuf.Value;
 import com.google.spanner.v1.Type;
 import com.google.spanner.v1.TypeCode;
+import java.nio.ByteBuffer;
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 import reactor.util.annotation.Nullable;
 
 /**
  * The default {@link Codecs} implementation. Delegates to type-specific codec implementations.
+ *
+ * <p>Codecs are indexed by the Spanner type they decode and by Java class, so the codec for a
+ * value is found without trying each codec in turn. The codec resolved for a Java class is cached
+ * per Spanner type after its first use.
+ *
+ * <p>Additional codecs take precedence over the built-in ones only for the Java type they declare.
+ * Reading or writing any other type, such as {@link Object}, keeps the built-in mapping, and falls
+ * back to the additional codecs only where no built-in codec applies.
  */
 public final class DefaultCodecs implements Codecs {
 
   private static final com.google.protobuf.Value NULL_VALUE =
       com.google.protobuf.Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
 
-  private final List<Codec<?>> codecs;
+  private final List<Codec<?>> additionalCodecs;
+
+  private final List<Codec<?>> builtInCodecs;
+
+  private final Map<Type, DecoderIndex> decoders = new ConcurrentHashMap<>();
+
+  private final Map<Class<?>, Codec<?>[]> encoders = new ConcurrentHashMap<>();
 
   /**
    * Constructs the {@link DefaultCodecs} used for type conversions.
    */
   public DefaultCodecs() {
-    this.codecs = Arrays.asList(
-        new ArrayCodec(this, Boolean[].class),
-        new ArrayCodec(this, byte[][].class),
-        new ArrayCodec(this, LocalDate[].class),
-        new ArrayCodec(this, Double[].class),
-        new ArrayCodec(this, Long[].class),
-        new ArrayCodec(this, String[].class),
-        new ArrayCodec(this, Timestamp[].class),
+    this(Collections.emptyList());
+  }
+
+  /**
+   * Constructs {@link DefaultCodecs} with additional codecs. The additional codecs take precedence
+   * over the built-in codecs, in the order given, for the Java type each of them declares as its
+   * {@link Codec#type()}.
+   *
+   * @param additionalCodecs codecs to use in addition to the built-in ones
+   */
+  public DefaultCodecs(List<Codec<?>> additionalCodecs) {
+    Assert.requireNonNull(additionalCodecs, "additionalCodecs must not be null");
+
+    this.additionalCodecs = new ArrayList<>(additionalCodecs);
+    this.builtInCodecs = Arrays.asList(
+        new ArrayCodec(this, Boolean[].class, TypeCode.BOOL),
+        new ArrayCodec(this, byte[][].class, TypeCode.BYTES),
+        new ArrayCodec(this, LocalDate[].class, TypeCode.DATE),
+        new ArrayCodec(this, Double[].class, TypeCode.FLOAT64),
+        new ArrayCodec(this, Long[].class, TypeCode.INT64),
+        new ArrayCodec(this, String[].class, TypeCode.STRING),
+        new ArrayCodec(this, Timestamp[].class, TypeCode.TIMESTAMP),
+        new PrimitiveArrayCodec<>(long[].class, TypeCode.INT64, ValueUtils::decodeInt64Array,
+            v -> {
+              ListValue.Builder builder = ListValue.newBuilder();
+              for (long element : v) {
+                builder.addValues(Value.newBuilder().setStringValue(Long.toString(element)));
+              }
+              return Value.newBuilder().setListValue(builder).build();
+            }),
+        new PrimitiveArrayCodec<>(double[].class, TypeCode.FLOAT64,
+            ValueUtils::decodeFloat64Array,
+            v -> {
+              ListValue.Builder builder = ListValue.newBuilder();
+              for (double element : v) {
+                builder.addValues(encodeFloat64(element));
+              }
+              return Value.newBuilder().setListValue(builder).build();
+            }),
+        new PrimitiveArrayCodec<>(boolean[].class, TypeCode.BOOL, ValueUtils::decodeBoolArray,
+            v -> {
+              ListValue.Builder builder = ListValue.newBuilder();
+              for (boolean element : v) {
+                builder.addValues(Value.newBuilder().setBoolValue(element));
+              }
+              return Value.newBuilder().setListValue(builder).build();
+            }),
         new SpannerCodec<>(Boolean.class, TypeCode.BOOL,
             v -> Value.newBuilder().setBoolValue(v).build()),
-        new SpannerCodec<>(byte[].class, TypeCode.BYTES,
-            v -> Value.newBuilder().setStringValue(new String(v)).build()),
+        new SpannerCodec<>(byte[].class, TypeCode.BYTES, ValueUtils::encodeBytes),
+        new SpannerCodec<>(ByteBuffer.class, TypeCode.BYTES, ValueUtils::decodeByteBuffer,
+            ValueUtils::encodeBytes),
         new SpannerCodec<>(LocalDate.class, TypeCode.DATE, v -> Value.newBuilder().setStringValue(
             DateTimeFormatter.ISO_LOCAL_DATE.format(v))
             .build()),
-        new SpannerCodec<>(Double.class, TypeCode.FLOAT64, v -> {
-          Value result;
-          if (v.isNaN()) {
-            result = Value.newBuilder().setStringValue("NaN").build();
-          } else if (v == Double.NEGATIVE_INFINITY) {
-            result = Value.newBuilder().setStringValue("-Infinity").build();
-          } else if (v == Double.POSITIVE_INFINITY) {
-            result = Value.newBuilder().setStringValue("Infinity").build();
-          } else {
-            result = Value.newBuilder().setNumberValue(v).build();
-          }
-          return result;
-        }),
+        new SpannerCodec<>(Double.class, TypeCode.FLOAT64, DefaultCodecs::encodeFloat64),
         new SpannerCodec<>(Long.class, TypeCode.INT64,
             v -> Value.newBuilder().setStringValue(Long.toString(v)).build()),
         new SpannerCodec<>(String.class, TypeCode.STRING,
             v -> Value.newBuilder().setStringValue(v).build()),
         new SpannerCodec<>(Timestamp.class, TypeCode.TIMESTAMP,
             v -> Value.newBuilder()
-                .setStringValue(ValueUtils.TIMESTAMP_FORMATTER.format(v.toInstant())).build())
+                .setStringValue(ValueUtils.formatTimestamp(v)).build()),
+        new SpannerCodec<>(Instant.class, TypeCode.TIMESTAMP, ValueUtils::decodeInstant,
+            v -> Value.newBuilder()
+                .setStringValue(ValueUtils.formatTimestamp(v.getEpochSecond(), v.getNano()))
+                .build()),
+        new SpannerCodec<>(OffsetDateTime.class, TypeCode.TIMESTAMP,
+            ValueUtils::decodeOffsetDateTime,
+            v -> Value.newBuilder()
+                .setStringValue(ValueUtils.formatTimestamp(v.toEpochSecond(), v.getNano()))
+                .build()),
+        new SpannerCodec<>(LocalDateTime.class, TypeCode.TIMESTAMP,
+            ValueUtils::decodeLocalDateTime,
+            v -> Value.newBuilder()
+                .setStringValue(ValueUtils.formatTimestamp(
+                    v.toEpochSecond(ZoneOffset.UTC), v.getNano()))
+                .build())
     );
   }
 
@@ -88,14 +157,25 @@ public final class DefaultCodecs implements Codecs {
     Assert.requireNonNull(spannerType, "spannerType must not be null");
     Assert.requireNonNull(type, "type must not be null");
 
-    for (Codec<?> codec : this.codecs) {
-      if (codec.canDecode(spannerType, type)) {
-        return ((Codec<T>) codec).decode(value, spannerType, type);
-      }
+    Codec<T> codec = (Codec<T>) getDecoderIndex(spannerType).get(type);
+    if (codec == null) {
+      throw new IllegalArgumentException(
+          String.format("Cannot decode value of type %s to %s", spannerType, type.getName()));
     }
 
-    throw new IllegalArgumentException(
-        String.format("Cannot decode value of type %s to %s", spannerType, type.getName()));
+    return codec.decode(value, spannerType, type);
+  }
+
+  /**
+   * Compiles a plan for decoding the columns of a result set.
+   *
+   * @param columnTypes the Spanner types of the columns
+   * @return the plan decoding the columns
+   */
+  public DecodePlan compile(Type... columnTypes) {
+    Assert.requireNonNull(columnTypes, "columnTypes must not be null");
+
+    return new DecodePlan(this, columnTypes);
   }
 
   @Override
@@ -103,7 +183,12 @@ public final class DefaultCodecs implements Codecs {
     if (value == null) {
       return NULL_VALUE;
     }
-    for (Codec<?> codec : this.codecs) {
+    Codec<?>[] encoders = this.encoders.get(value.getClass());
+    if (encoders == null) {
+      encoders = this.encoders.computeIfAbsent(value.getClass(), valueType ->
+          byPrecedence(valueType, codec -> codec.type().isAssignableFrom(valueType)));
+    }
+    for (Codec<?> codec : encoders) {
       if (codec.canEncode(value)) {
         return codec.encode(value);
       }
@@ -112,4 +197,82 @@ public final class DefaultCodecs implements Codecs {
     throw new IllegalArgumentException(
         String.format("Cannot encode parameter of type %s", value.getClass().getName()));
   }
+
+  private static Value encodeFloat64(double v) {
+    Value result;
+    if (Double.isNaN(v)) {
+      result = Value.newBuilder().setStringValue("NaN").build();
+    } else if (v == Double.NEGATIVE_INFINITY) {
+      result = Value.newBuilder().setStringValue("-Infinity").build();
+    } else if (v == Double.POSITIVE_INFINITY) {
+      result = Value.newBuilder().setStringValue("Infinity").build();
+    } else {
+      result = Value.newBuilder().setNumberValue(v).build();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the index of the codecs that decode values of a Spanner type.
+   *
+   * @param spannerType the Spanner type of the values
+   * @return the index, created on the first request for the type
+   */
+  DecoderIndex getDecoderIndex(Type spannerType) {
+    DecoderIndex decoderIndex = this.decoders.get(spannerType);
+    return decoderIndex != null
+        ? decoderIndex
+        : this.decoders.computeIfAbsent(spannerType, DecoderIndex::new);
+  }
+
+  /**
+   * Returns the codecs that apply to a Java type, in order of precedence: first the codecs
+   * declaring exactly that type, additional codecs before built-in ones, then the built-in codecs
+   * and last the additional codecs that apply to it otherwise.
+   */
+  private Codec<?>[] byPrecedence(Class<?> type, Predicate<Codec<?>> applies) {
+    Stream<Codec<?>> declaringType = Stream.concat(
+        this.additionalCodecs.stream(), this.builtInCodecs.stream())
+        .filter(codec -> codec.type() == type);
+    Stream<Codec<?>> otherwise = Stream.concat(
+        this.builtInCodecs.stream(), this.additionalCodecs.stream())
+        .filter(codec -> codec.type() != type);
+    return Stream.concat(declaringType, otherwise)
+        .filter(applies)
+        .toArray(Codec<?>[]::new);
+  }
+
+  /**
+   * The codec decoding values of one Spanner type to each requested Java class, resolved on the
+   * first request for the class.
+   */
+  final class DecoderIndex {
+
+    private final Type spannerType;
+
+    private final Map<Class<?>, Codec<?>> resolved = new ConcurrentHashMap<>();
+
+    private DecoderIndex(Type spannerType) {
+      this.spannerType = spannerType;
+    }
+
+    /**
+     * Returns the codec decoding values of the Spanner type to a Java class.
+     *
+     * @param type the class to decode to
+     * @return the codec, or {@code null} if no codec decodes the Spanner type to {@code type}
+     */
+    @Nullable
+    Codec<?> get(Class<?> type) {
+      Codec<?> codec = this.resolved.get(type);
+      return codec != null ? codec : this.resolved.computeIfAbsent(type, this::resolve);
+    }
+
+    @Nullable
+    private Codec<?> resolve(Class<?> type) {
+      Codec<?>[] candidates =
+          byPrecedence(type, codec -> codec.canDecode(this.spannerType, type));
+      return candidates.length == 0 ? null : candidates[0];
+    }
+  }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.codecs;
+
+import com.google.protobuf.Value;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Codec for arrays of primitives, such as {@code long[]}, decoding {@code ARRAY} values of one
+ * element type. Arrays containing {@code NULL} elements cannot be decoded.
+ */
+final class PrimitiveArrayCodec<T> extends SpannerCodec<T> {
+
+  private TypeCode elementTypeCode;
+
+  PrimitiveArrayCodec(Class<T> klass, TypeCode elementTypeCode,
+      BiFunction<Type, Value, T> doDecode, Function<T, Value> doEncode) {
+    super(klass, TypeCode.ARRAY, doDecode, doEncode);
+    this.elementTypeCode = elementTypeCode;
+  }
+
+  @Override
+  public boolean canDecode(Type dataType, Class<?> type) {
+    return super.canDecode(dataType, type)
+        && dataType.getArrayElementType().getCode() == this.elementTypeCode;
+  }
+}
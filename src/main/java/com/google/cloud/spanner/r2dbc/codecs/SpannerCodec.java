@@ -20,6 +20,7 @@ import com.google.cloud.spanner.r2dbc.util.Assert;
 import com.google.protobuf.Value;
 import com.google.spanner.v1.Type;
 import com.google.spanner.v1.TypeCode;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import reactor.util.annotation.Nullable;
 
@@ -28,10 +29,21 @@ class SpannerCodec<T> implements Codec<T> {
   private final Class<T> type;
   private TypeCode typeCode;
   private Function<T, Value> doEncode;
+  private BiFunction<Type, Value, T> doDecode;
 
   SpannerCodec(Class<T> type, TypeCode typeCode, Function<T, Value> doEncode) {
+    this(type, typeCode, null, doEncode);
+  }
+
+  /**
+   * Creates a codec decoding with {@code doDecode} rather than to the Java type
+   * {@link ValueUtils#decodeValue} maps the Spanner type to.
+   */
+  SpannerCodec(Class<T> type, TypeCode typeCode, BiFunction<Type, Value, T> doDecode,
+      Function<T, Value> doEncode) {
     this.type = Assert.requireNonNull(type, "type must not be null");
     this.typeCode = Assert.requireNonNull(typeCode, "typeCode must not be null");
+    this.doDecode = doDecode;
     this.doEncode = doEncode;
   }
 
@@ -83,6 +95,9 @@ class SpannerCodec<T> implements Codec<T> {
   }
 
   T doDecode(Value value, Type spannerType, Class<? extends T> type) {
+    if (this.doDecode != null) {
+      return this.doDecode.apply(spannerType, value);
+    }
     return (T) ValueUtils.decodeValue(spannerType, value);
   }
 
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.codecs;
+
+import java.time.LocalDateTime;
+
+/**
+ * Parses and formats timestamps in the RFC 3339 UTC format Spanner uses,
+ * {@code yyyy-MM-ddTHH:mm:ss[.fffffffff]Z}, directly from and to characters.
+ *
+ * <p>Only this fixed format is handled, for years 0 to 9999; callers fall back to
+ * {@link ValueUtils#TIMESTAMP_FORMATTER} for anything else.
+ */
+final class TimestampFormat {
+
+  private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+  private static final int MAX_FRACTION_DIGITS = 9;
+
+  /** Length of {@code yyyy-MM-ddTHH:mm:ss}. */
+  private static final int DATE_TIME_LENGTH = 19;
+
+  /** Number of days from 0000-03-01 to 1970-01-01. */
+  private static final int DAYS_0000_TO_1970 = 719468;
+
+  private static final int DAYS_PER_400_YEARS = 146097;
+
+  private static final long MIN_FORMATTABLE_EPOCH_SECOND =
+      toEpochDay(0, 1, 1) * SECONDS_PER_DAY;
+
+  private static final long MAX_FORMATTABLE_EPOCH_SECOND =
+      toEpochDay(10000, 1, 1) * SECONDS_PER_DAY - 1;
+
+  private TimestampFormat() {
+  }
+
+  /**
+   * Indicates whether the text is a valid timestamp in the format handled here.
+   *
+   * @param text the text to check
+   * @return true if {@link #parseEpochSecond} and {@link #parseNano} can parse the text
+   */
+  static boolean isUtcTimestamp(String text) {
+    int length = text.length();
+    if (length < DATE_TIME_LENGTH + 1
+        || !isDigits(text, 0, 4) || text.charAt(4) != '-'
+        || !isDigits(text, 5, 7) || text.charAt(7) != '-'
+        || !isDigits(text, 8, 10) || (text.charAt(10) != 'T' && text.charAt(10) != 't')
+        || !isDigits(text, 11, 13) || text.charAt(13) != ':'
+        || !isDigits(text, 14, 16) || text.charAt(16) != ':'
+        || !isDigits(text, 17, 19)
+        || (text.charAt(length - 1) != 'Z' && text.charAt(length - 1) != 'z')) {
+      return false;
+    }
+    if (length > DATE_TIME_LENGTH + 1) {
+      int fractionDigits = length - DATE_TIME_LENGTH - 2;
+      if (text.charAt(DATE_TIME_LENGTH) != '.' || fractionDigits < 1
+          || fractionDigits > MAX_FRACTION_DIGITS
+          || !isDigits(text, DATE_TIME_LENGTH + 1, length - 1)) {
+        return false;
+      }
+    }
+
+    int year = parseDigits(text, 0, 4);
+    int month = parseDigits(text, 5, 7);
+    int day = parseDigits(text, 8, 10);
+    return month >= 1 && month <= 12
+        && day >= 1 && day <= lengthOfMonth(year, month)
+        && parseDigits(text, 11, 13) <= 23
+        && parseDigits(text, 14, 16) <= 59
+        && parseDigits(text, 17, 19) <= 59;
+  }
+
+  /**
+   * Parses the seconds since the epoch of a timestamp checked with {@link #isUtcTimestamp}.
+   *
+   * @param text the timestamp
+   * @return the seconds since 1970-01-01T00:00:00Z
+   */
+  static long parseEpochSecond(String text) {
+    long epochDay = toEpochDay(
+        parseDigits(text, 0, 4), parseDigits(text, 5, 7), parseDigits(text, 8, 10));
+    int secondOfDay = parseDigits(text, 11, 13) * 3600
+        + parseDigits(text, 14, 16) * 60
+        + parseDigits(text, 17, 19);
+    return epochDay * SECONDS_PER_DAY + secondOfDay;
+  }
+
+  /**
+   * Parses the nanoseconds within the second of a timestamp checked with
+   * {@link #isUtcTimestamp}.
+   *
+   * @param text the timestamp
+   * @return the nanoseconds of the fraction of the second
+   */
+  static int parseNano(String text) {
+    int nano = 0;
+    int end = text.length() - 1;
+    int digit = DATE_TIME_LENGTH + 1;
+    for (int i = 0; i < MAX_FRACTION_DIGITS; i++, digit++) {
+      nano = nano * 10 + (digit < end ? text.charAt(digit) - '0' : 0);
+    }
+    return nano;
+  }
+
+  /**
+   * Parses the date and time of a timestamp checked with {@link #isUtcTimestamp}, in UTC.
+   *
+   * @param text the timestamp
+   * @return the date and time in UTC
+   */
+  static LocalDateTime parseLocalDateTime(String text) {
+    return LocalDateTime.of(
+        parseDigits(text, 0, 4), parseDigits(text, 5, 7), parseDigits(text, 8, 10),
+        parseDigits(text, 11, 13), parseDigits(text, 14, 16), parseDigits(text, 17, 19),
+        parseNano(text));
+  }
+
+  /**
+   * Formats a timestamp, with 3, 6 or 9 fraction digits as needed and none for whole seconds.
+   *
+   * @param epochSecond the seconds since 1970-01-01T00:00:00Z, of a year from 0 to 9999
+   * @param nano the nanoseconds within the second
+   * @return the formatted timestamp
+   */
+  static String format(long epochSecond, int nano) {
+    char[] chars = new char[DATE_TIME_LENGTH + 2 + MAX_FRACTION_DIGITS];
+    long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+
+    // civil date from days since the epoch, with years starting on March 1st
+    long dayOfEra = epochDay + DAYS_0000_TO_1970;
+    long era = Math.floorDiv(dayOfEra, DAYS_PER_400_YEARS);
+    int dayOfEraCycle = (int) (dayOfEra - era * DAYS_PER_400_YEARS);
+    int yearOfEra = (dayOfEraCycle - dayOfEraCycle / 1460 + dayOfEraCycle / 36524
+        - dayOfEraCycle / (DAYS_PER_400_YEARS - 1)) / 365;
+    int dayOfYear = dayOfEraCycle - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int shiftedMonth = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+    writeDigits(chars, 0, 4, year);
+    chars[4] = '-';
+    writeDigits(chars, 5, 7, month);
+    chars[7] = '-';
+    writeDigits(chars, 8, 10, day);
+    chars[10] = 'T';
+    writeDigits(chars, 11, 13, secondOfDay / 3600);
+    chars[13] = ':';
+    writeDigits(chars, 14, 16, secondOfDay / 60 % 60);
+    chars[16] = ':';
+    writeDigits(chars, 17, 19, secondOfDay % 60);
+
+    int length = DATE_TIME_LENGTH;
+    if (nano != 0) {
+      chars[length++] = '.';
+      writeDigits(chars, length, length + MAX_FRACTION_DIGITS, nano);
+      length += MAX_FRACTION_DIGITS;
+      // drop trailing zeros in groups of three, as java.time and the Spanner client library do
+      while (chars[length - 1] == '0' && chars[length - 2] == '0' && chars[length - 3] == '0') {
+        length -= 3;
+      }
+    }
+    chars[length++] = 'Z';
+    return new String(chars, 0, length);
+  }
+
+  /**
+   * Indicates whether the seconds since the epoch fall in a year {@link #format} can format.
+   *
+   * @param epochSecond the seconds since 1970-01-01T00:00:00Z
+   * @return true if the year is from 0 to 9999
+   */
+  static boolean isFormattable(long epochSecond) {
+    return epochSecond >= MIN_FORMATTABLE_EPOCH_SECOND
+        && epochSecond <= MAX_FORMATTABLE_EPOCH_SECOND;
+  }
+
+  /**
+   * Returns the days since 1970-01-01 of a date in the proleptic Gregorian calendar.
+   */
+  static long toEpochDay(int year, int month, int day) {
+    int marchYear = month <= 2 ? year - 1 : year;
+    long era = Math.floorDiv(marchYear, 400);
+    int yearOfEra = (int) (marchYear - era * 400);
+    int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+  }
+
+  static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return isLeapYear(year) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  static boolean isDigits(String text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static int parseDigits(String text, int start, int end) {
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      value = value * 10 + (text.charAt(i) - '0');
+    }
+    return value;
+  }
+
+  private static void writeDigits(char[] chars, int start, int end, int value) {
+    for (int i = end - 1; i >= start; i--) {
+      chars[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  private static boolean isLeapYear(int year) {
+    return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+  }
+}
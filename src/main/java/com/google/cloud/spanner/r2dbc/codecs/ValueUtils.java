@@ -17,18 +17,22 @@
 package com.google.cloud.spanner.r2dbc.codecs;
 
 import com.google.protobuf.ListValue;
+import com.google.protobuf.UnsafeByteOperations;
 import com.google.protobuf.Value;
 import com.google.protobuf.Value.KindCase;
 import com.google.spanner.v1.Type;
+import java.nio.ByteBuffer;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.temporal.TemporalAccessor;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.Base64;
 
 class ValueUtils {
 
@@ -36,7 +40,15 @@ class ValueUtils {
       .appendOptional(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
       .optionalStart().appendOffsetId().optionalEnd().toFormatter().withZone(ZoneOffset.UTC);
 
-  private static final Pattern FORMAT_REGEXP = Pattern.compile("(\\d\\d\\d\\d)-(\\d\\d)-(\\d\\d)");
+  private static final byte[] BASE64_VALUES = new byte[128];
+
+  static {
+    Arrays.fill(BASE64_VALUES, (byte) -1);
+    String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    for (int i = 0; i < alphabet.length(); i++) {
+      BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+    }
+  }
 
   static Object decodeValue(Type fieldType, com.google.protobuf.Value proto) {
     if (proto.getKindCase() == KindCase.NULL_VALUE) {
@@ -72,6 +84,77 @@ class ValueUtils {
     }
   }
 
+  static long decodeInt64(Type fieldType, Value proto) {
+    checkType(fieldType, proto, KindCase.STRING_VALUE);
+    return Long.parseLong(proto.getStringValue());
+  }
+
+  static double decodeFloat64(Value proto) {
+    return parseFloat64(proto);
+  }
+
+  static boolean decodeBool(Type fieldType, Value proto) {
+    checkType(fieldType, proto, KindCase.BOOL_VALUE);
+    return proto.getBoolValue();
+  }
+
+  static long[] decodeInt64Array(Type fieldType, Value proto) {
+    ListValue listValue = checkPrimitiveArray(fieldType, proto, "long");
+    if (listValue == null) {
+      return null;
+    }
+    long[] values = new long[listValue.getValuesCount()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = decodeInt64(fieldType.getArrayElementType(), listValue.getValues(i));
+    }
+    return values;
+  }
+
+  static double[] decodeFloat64Array(Type fieldType, Value proto) {
+    ListValue listValue = checkPrimitiveArray(fieldType, proto, "double");
+    if (listValue == null) {
+      return null;
+    }
+    double[] values = new double[listValue.getValuesCount()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = parseFloat64(listValue.getValues(i));
+    }
+    return values;
+  }
+
+  static boolean[] decodeBoolArray(Type fieldType, Value proto) {
+    ListValue listValue = checkPrimitiveArray(fieldType, proto, "boolean");
+    if (listValue == null) {
+      return null;
+    }
+    boolean[] values = new boolean[listValue.getValuesCount()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = decodeBool(fieldType.getArrayElementType(), listValue.getValues(i));
+    }
+    return values;
+  }
+
+  /**
+   * Returns the elements of an array to be decoded to an array of primitives, or {@code null} if
+   * the array itself is {@code NULL}.
+   *
+   * @throws NullPointerException if any element is {@code NULL}
+   */
+  private static ListValue checkPrimitiveArray(Type fieldType, Value proto, String elementType) {
+    if (proto.getKindCase() == KindCase.NULL_VALUE) {
+      return null;
+    }
+    checkType(fieldType, proto, KindCase.LIST_VALUE);
+    ListValue listValue = proto.getListValue();
+    for (int i = 0; i < listValue.getValuesCount(); i++) {
+      if (listValue.getValues(i).getKindCase() == KindCase.NULL_VALUE) {
+        throw new NullPointerException("Element " + i + " of the array is NULL and cannot be "
+            + "decoded to " + elementType + "; decode to an array of boxed values instead");
+      }
+    }
+    return listValue;
+  }
+
   private static Object decodeArrayValue(Type elementType, ListValue listValue) {
     switch (elementType.getCode()) {
       case BOOL:
@@ -125,31 +208,142 @@ class ValueUtils {
     if (value.getKindCase() == KindCase.NULL_VALUE || value.getStringValue() == null) {
       return null;
     }
-    return value.getStringValue().getBytes();
+    return decodeBase64(value.getStringValue());
+  }
+
+  /**
+   * Decodes base64 text straight from its characters into an array of the decoded length.
+   *
+   * <p>Strings of protobuf messages parsed from the wire are held as {@link String}s, so decoding
+   * from the characters avoids converting them to bytes first.
+   */
+  static byte[] decodeBase64(String text) {
+    int length = text.length();
+    if (length % 4 != 0) {
+      // unpadded or invalid; leave it to the JDK decoder to accept or reject
+      return Base64.getDecoder().decode(text);
+    }
+    int dataLength = length;
+    while (dataLength > 0 && length - dataLength < 2 && text.charAt(dataLength - 1) == '=') {
+      dataLength--;
+    }
+
+    byte[] bytes = new byte[dataLength * 6 / 8];
+    int bits = 0;
+    int bitCount = 0;
+    int position = 0;
+    for (int i = 0; i < dataLength; i++) {
+      char c = text.charAt(i);
+      int value = c < BASE64_VALUES.length ? BASE64_VALUES[c] : -1;
+      if (value < 0) {
+        throw new IllegalArgumentException(
+            "Illegal base64 character " + Integer.toHexString(c) + " at position " + i);
+      }
+      bits = bits << 6 | value;
+      bitCount += 6;
+      if (bitCount >= 8) {
+        bitCount -= 8;
+        bytes[position++] = (byte) (bits >> bitCount);
+      }
+    }
+    return bytes;
+  }
+
+  static ByteBuffer decodeByteBuffer(Type fieldType, Value proto) {
+    if (proto.getKindCase() == KindCase.NULL_VALUE) {
+      return null;
+    }
+    checkType(fieldType, proto, KindCase.STRING_VALUE);
+    return ByteBuffer.wrap(decodeBase64(proto.getStringValue()));
+  }
+
+  /**
+   * Encodes bytes as base64 text, held by the {@link Value} as bytes so no {@link String} is
+   * built for it.
+   */
+  static Value encodeBytes(byte[] bytes) {
+    return Value.newBuilder()
+        .setStringValueBytes(UnsafeByteOperations.unsafeWrap(Base64.getEncoder().encode(bytes)))
+        .build();
+  }
+
+  static Value encodeBytes(ByteBuffer bytes) {
+    return Value.newBuilder()
+        .setStringValueBytes(
+            UnsafeByteOperations.unsafeWrap(Base64.getEncoder().encode(bytes.duplicate())))
+        .build();
   }
 
   private static java.sql.Timestamp parseTimestamp(Value proto) {
     if (proto.getKindCase() == KindCase.NULL_VALUE || proto.getStringValue() == null) {
       return null;
     }
-    TemporalAccessor temporalAccessor = TIMESTAMP_FORMATTER.parse(proto.getStringValue());
+    String text = proto.getStringValue();
+    if (TimestampFormat.isUtcTimestamp(text)) {
+      java.sql.Timestamp timestamp =
+          new java.sql.Timestamp(TimestampFormat.parseEpochSecond(text) * 1000);
+      timestamp.setNanos(TimestampFormat.parseNano(text));
+      return timestamp;
+    }
+    TemporalAccessor temporalAccessor = TIMESTAMP_FORMATTER.parse(text);
     return java.sql.Timestamp.from(Instant.from(temporalAccessor));
   }
 
+  static String formatTimestamp(java.sql.Timestamp timestamp) {
+    return formatTimestamp(Math.floorDiv(timestamp.getTime(), 1000), timestamp.getNanos());
+  }
+
+  static Instant decodeInstant(Type fieldType, Value proto) {
+    if (proto.getKindCase() == KindCase.NULL_VALUE) {
+      return null;
+    }
+    checkType(fieldType, proto, KindCase.STRING_VALUE);
+    String text = proto.getStringValue();
+    if (TimestampFormat.isUtcTimestamp(text)) {
+      return Instant.ofEpochSecond(
+          TimestampFormat.parseEpochSecond(text), TimestampFormat.parseNano(text));
+    }
+    return Instant.from(TIMESTAMP_FORMATTER.parse(text));
+  }
+
+  static LocalDateTime decodeLocalDateTime(Type fieldType, Value proto) {
+    if (proto.getKindCase() == KindCase.NULL_VALUE) {
+      return null;
+    }
+    checkType(fieldType, proto, KindCase.STRING_VALUE);
+    String text = proto.getStringValue();
+    if (TimestampFormat.isUtcTimestamp(text)) {
+      return TimestampFormat.parseLocalDateTime(text);
+    }
+    Instant instant = Instant.from(TIMESTAMP_FORMATTER.parse(text));
+    return LocalDateTime.ofEpochSecond(instant.getEpochSecond(), instant.getNano(), ZoneOffset.UTC);
+  }
+
+  static OffsetDateTime decodeOffsetDateTime(Type fieldType, Value proto) {
+    LocalDateTime localDateTime = decodeLocalDateTime(fieldType, proto);
+    return localDateTime == null ? null : OffsetDateTime.of(localDateTime, ZoneOffset.UTC);
+  }
+
+  static String formatTimestamp(long epochSecond, int nano) {
+    if (TimestampFormat.isFormattable(epochSecond)) {
+      return TimestampFormat.format(epochSecond, nano);
+    }
+    return TIMESTAMP_FORMATTER.format(Instant.ofEpochSecond(epochSecond, nano));
+  }
+
   private static LocalDate parseDate(Value proto) {
-    String date = proto.getStringValue();
-    if (proto.getKindCase() == KindCase.NULL_VALUE || date == null) {
+    if (proto.getKindCase() == KindCase.NULL_VALUE || proto.getStringValue() == null) {
       return null;
     }
-    Matcher matcher = FORMAT_REGEXP.matcher(date);
-    if (!matcher.matches()) {
+    String date = proto.getStringValue();
+    if (date.length() != 10
+        || !TimestampFormat.isDigits(date, 0, 4) || date.charAt(4) != '-'
+        || !TimestampFormat.isDigits(date, 5, 7) || date.charAt(7) != '-'
+        || !TimestampFormat.isDigits(date, 8, 10)) {
       throw new IllegalArgumentException("Invalid date: " + date);
-    } else {
-      int year = Integer.parseInt(matcher.group(1));
-      int month = Integer.parseInt(matcher.group(2));
-      int dayOfMonth = Integer.parseInt(matcher.group(3));
-      return LocalDate.of(year, month, dayOfMonth);
     }
+    return LocalDate.of(TimestampFormat.parseDigits(date, 0, 4),
+        TimestampFormat.parseDigits(date, 5, 7), TimestampFormat.parseDigits(date, 8, 10));
   }
 
   private static void checkType(
@@ -169,6 +363,10 @@ class ValueUtils {
     if (proto.getKindCase() == KindCase.NULL_VALUE) {
       return null;
     }
+    return parseFloat64(proto);
+  }
+
+  private static double parseFloat64(com.google.protobuf.Value proto) {
     if (proto.getKindCase() == KindCase.STRING_VALUE) {
       switch (proto.getStringValue()) {
         case "-Infinity":
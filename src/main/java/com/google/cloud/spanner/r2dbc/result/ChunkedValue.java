@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.result;
+
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import com.google.protobuf.Value.KindCase;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates the chunks of a {@link Value} that is split across several
+ * {@link com.google.spanner.v1.PartialResultSet}s.
+ *
+ * <p>Chunks are appended to a {@link StringBuilder} for strings, or to a list of elements for
+ * lists, whose last element is itself accumulated since it may continue in the next chunk. The
+ * merged {@link Value} is only built once by {@link #build()}, so merging n chunks takes time
+ * linear in the total size of the value.
+ */
+class ChunkedValue {
+
+  private final Value initialValue;
+
+  private StringBuilder stringValue;
+
+  private List<Value> listValues;
+
+  private ChunkedValue lastListValue;
+
+  ChunkedValue(Value initialValue) {
+    this.initialValue = initialValue;
+  }
+
+  KindCase getKindCase() {
+    return this.initialValue.getKindCase();
+  }
+
+  /**
+   * Appends the next chunk of the value.
+   * @param chunk the chunk continuing the value
+   */
+  void append(Value chunk) {
+    if (getKindCase() == KindCase.STRING_VALUE) {
+      if (this.stringValue == null) {
+        this.stringValue = new StringBuilder(this.initialValue.getStringValue());
+      }
+      this.stringValue.append(chunk.getStringValue());
+    } else {
+      if (this.listValues == null) {
+        this.listValues = new ArrayList<>();
+        appendListValues(this.initialValue.getListValue());
+      }
+      appendListValues(chunk.getListValue());
+    }
+  }
+
+  /**
+   * Builds the value from all chunks appended so far.
+   * @return the merged value
+   */
+  Value build() {
+    if (this.stringValue != null) {
+      return Value.newBuilder().setStringValue(this.stringValue.toString()).build();
+    }
+    if (this.listValues != null) {
+      ListValue.Builder listValue = ListValue.newBuilder().addAllValues(this.listValues);
+      if (this.lastListValue != null) {
+        listValue.addValues(this.lastListValue.build());
+      }
+      return Value.newBuilder().setListValue(listValue).build();
+    }
+    return this.initialValue;
+  }
+
+  private void appendListValues(ListValue chunk) {
+    for (int i = 0; i < chunk.getValuesCount(); i++) {
+      Value value = chunk.getValues(i);
+      // only the first element of a chunk can continue the last element of the previous one
+      if (i == 0 && this.lastListValue != null && isMergeable(this.lastListValue.getKindCase())
+          && this.lastListValue.getKindCase() == value.getKindCase()) {
+        this.lastListValue.append(value);
+      } else {
+        if (this.lastListValue != null) {
+          this.listValues.add(this.lastListValue.build());
+        }
+        this.lastListValue = new ChunkedValue(value);
+      }
+    }
+  }
+
+  // Client lib definition. These kind-cases are mergeable for PartialResultSet.
+  static boolean isMergeable(KindCase kind) {
+    return kind == KindCase.STRING_VALUE || kind == KindCase.LIST_VALUE;
+  }
+}
@@ -18,11 +18,11 @@ package com.google.cloud.spanner.r2dbc.result;
 
 import com.google.cloud.spanner.r2dbc.SpannerRow;
 import com.google.cloud.spanner.r2dbc.SpannerRowMetadata;
-import com.google.protobuf.ListValue;
+import com.google.cloud.spanner.r2dbc.codecs.DefaultCodecs;
 import com.google.protobuf.Value;
-import com.google.protobuf.Value.KindCase;
 import com.google.spanner.v1.PartialResultSet;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
@@ -31,21 +31,52 @@ import java.util.function.Function;
  */
 public class PartialResultRowExtractor implements Function<PartialResultSet, List<SpannerRow>> {
 
+  private final DefaultCodecs codecs;
   private SpannerRowMetadata metadata = null;
   private int rowSize;
   private boolean prevIsChunk;
-  private List<Value> currentRow = new ArrayList<>();
-  private Object incompletePiece;
-  private KindCase incompletePieceKind;
+  private ChunkedValue incompletePiece;
+
+  /* The values of the rows assembled from the current partial result set. Complete rows are views
+  of this batch starting at their offset, so no per-row list is allocated. */
+  private Value[] batch = new Value[0];
+  private int batchSize;
+  private int currentRowStart;
+
+  public PartialResultRowExtractor() {
+    this(null);
+  }
+
+  /**
+   * Creates an extractor of rows decoded with the given codecs.
+   *
+   * @param codecs the codecs decoding the rows, or {@code null} for the built-in codecs
+   */
+  public PartialResultRowExtractor(DefaultCodecs codecs) {
+    this.codecs = codecs;
+  }
 
   private void appendToRow(Value val, List<SpannerRow> rows) {
-    currentRow.add(val);
-    if (currentRow.size() == rowSize) {
-      rows.add(new SpannerRow(currentRow, metadata));
-      currentRow = new ArrayList<>();
+    batch[batchSize++] = val;
+    if (batchSize - currentRowStart == rowSize) {
+      rows.add(new SpannerRow(batch, currentRowStart, metadata));
+      currentRowStart = batchSize;
     }
   }
 
+  /**
+   * Starts a new batch that can hold the values of the incomplete current row and the given
+   * number of new values. The previous batch stays referenced only by the rows it was used for.
+   */
+  private void startBatch(int newValueCount) {
+    int currentRowSize = batchSize - currentRowStart;
+    Value[] newBatch = new Value[currentRowSize + newValueCount];
+    System.arraycopy(batch, currentRowStart, newBatch, 0, currentRowSize);
+    batch = newBatch;
+    batchSize = currentRowSize;
+    currentRowStart = 0;
+  }
+
   /**
    * Assembles as many complete rows as possible, given previous incomplete fields and a new {@link
    * PartialResultSet}.
@@ -53,9 +84,13 @@ public class PartialResultRowExtractor implements Function<PartialResultSet, Lis
    * @param partialResultSet a not yet processed result set
    */
   public List<SpannerRow> emitRows(PartialResultSet partialResultSet) {
-    List<SpannerRow> rows = new ArrayList<>();
     ensureMetadataAvailable(partialResultSet);
     int availableCount = partialResultSet.getValuesCount();
+    if (availableCount == 0) {
+      return Collections.emptyList();
+    }
+    List<SpannerRow> rows = new ArrayList<>(availableCount / rowSize + 1);
+    startBatch(availableCount);
 
     if (prevIsChunk) {
       concatFirstIncompletePiece(partialResultSet);
@@ -81,22 +116,13 @@ public class PartialResultRowExtractor implements Function<PartialResultSet, Lis
   }
 
   private void initializeIncompletePiece(Value lastVal) {
-    incompletePieceKind = lastVal.getKindCase();
-    incompletePiece = lastVal.getKindCase() == KindCase.STRING_VALUE ? lastVal.getStringValue() :
-        new ArrayList<>(lastVal.getListValue().getValuesList());
+    incompletePiece = new ChunkedValue(lastVal);
   }
 
   private void emitCompleteFirstValue(PartialResultSet partialResultSet, List<SpannerRow> rows) {
-    Value val = prevIsChunk ? incompletePieceKind == KindCase.STRING_VALUE
-        ? Value.newBuilder().setStringValue((String) incompletePiece)
-        .build()
-        : Value.newBuilder()
-            .setListValue(
-                ListValue.newBuilder()
-                    .addAllValues((List<Value>) incompletePiece))
-            .build()
-        : partialResultSet.getValues(0);
+    Value val = prevIsChunk ? incompletePiece.build() : partialResultSet.getValues(0);
     appendToRow(val, rows);
+    incompletePiece = null;
     prevIsChunk = false;
   }
 
@@ -110,14 +136,7 @@ public class PartialResultRowExtractor implements Function<PartialResultSet, Lis
   }
 
   private void concatFirstIncompletePiece(PartialResultSet partialResultSet) {
-    Value firstPiece = partialResultSet.getValues(0);
-    // Concat code from client lib
-    if (incompletePieceKind == KindCase.STRING_VALUE) {
-      incompletePiece = incompletePiece + firstPiece.getStringValue();
-    } else {
-      concatLists((List<Value>) incompletePiece,
-          firstPiece.getListValue().getValuesList());
-    }
+    incompletePiece.append(partialResultSet.getValues(0));
   }
 
   private void ensureMetadataAvailable(PartialResultSet partialResultSet) {
@@ -126,50 +145,13 @@ public class PartialResultRowExtractor implements Function<PartialResultSet, Lis
         throw new IllegalStateException("The first partial result set for a query must contain the "
             + "metadata but it was null.");
       }
-      metadata = new SpannerRowMetadata(partialResultSet.getMetadata());
+      metadata = codecs == null
+          ? new SpannerRowMetadata(partialResultSet.getMetadata())
+          : new SpannerRowMetadata(partialResultSet.getMetadata(), codecs);
       rowSize = partialResultSet.getMetadata().getRowType().getFieldsCount();
     }
   }
 
-  // Client lib definition. These kind-cases are mergeable for PartialResultSet.
-  private boolean isMergeable(KindCase kind) {
-    return kind == KindCase.STRING_VALUE || kind == KindCase.LIST_VALUE;
-  }
-
-  /**
-   * Used to merge List-column value chunks. From Client lib.
-   */
-  private void concatLists(List<com.google.protobuf.Value> a, List<com.google.protobuf.Value> b) {
-    if (a.size() == 0 || b.size() == 0) {
-      a.addAll(b);
-    } else {
-      com.google.protobuf.Value last = a.get(a.size() - 1);
-      com.google.protobuf.Value first = b.get(0);
-      KindCase lastKind = last.getKindCase();
-      KindCase firstKind = first.getKindCase();
-      if (isMergeable(lastKind) && lastKind == firstKind) {
-        com.google.protobuf.Value merged = null;
-        if (lastKind == KindCase.STRING_VALUE) {
-          String lastStr = last.getStringValue();
-          String firstStr = first.getStringValue();
-          merged =
-              com.google.protobuf.Value.newBuilder().setStringValue(lastStr + firstStr).build();
-        } else { // List
-          List<Value> mergedList = new ArrayList<>(last.getListValue().getValuesList());
-          concatLists(mergedList, first.getListValue().getValuesList());
-          merged =
-              com.google.protobuf.Value.newBuilder()
-                  .setListValue(ListValue.newBuilder().addAllValues(mergedList))
-                  .build();
-        }
-        a.set(a.size() - 1, merged);
-        a.addAll(b.subList(1, b.size()));
-      } else {
-        a.addAll(b);
-      }
-    }
-  }
-
   @Override
   public List<SpannerRow> apply(PartialResultSet partialResultSet) {
     return emitRows(partialResultSet);
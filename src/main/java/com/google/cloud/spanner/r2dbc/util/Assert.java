@@ -45,4 +45,19 @@ public class Assert {
     return t;
   }
 
+  /**
+   * Checks that a boolean condition holds and throws a customized
+   * {@link IllegalArgumentException} if it does not.
+   *
+   * @param condition the condition to check
+   * @param message informative message to be used in the event that an
+   * {@link IllegalArgumentException} is thrown
+   * @throws IllegalArgumentException if {@code condition} is {@code false}
+   */
+  public static void isTrue(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
 }
@@ -112,11 +112,12 @@ public class ObservableReactiveUtil {
    * Forwards the result of a unary gRPC call to a {@link MonoSink}.
    *
    * <p>Unary gRPC calls expect a single response or an error, so completion of the call without an
-   * emitted value is an error condition.
+   * emitted value is an error condition. Cancelling the {@link Mono} cancels the call.
    *
    * @param <ResponseT> type of expected gRPC call response value.
    */
-  private static class UnaryStreamObserver<ResponseT> implements StreamObserver<ResponseT> {
+  private static class UnaryStreamObserver<RequestT, ResponseT>
+      implements ClientResponseObserver<RequestT, ResponseT> {
 
     private boolean terminalEventReceived;
 
@@ -138,6 +139,11 @@ public class ObservableReactiveUtil {
       this.sink.error(throwable);
     }
 
+    @Override
+    public void beforeStart(ClientCallStreamObserver<RequestT> requestStream) {
+      this.sink.onCancel(() -> requestStream.cancel("Mono requested cancel.", null));
+    }
+
     @Override
     public void onCompleted() {
       if (!terminalEventReceived) {
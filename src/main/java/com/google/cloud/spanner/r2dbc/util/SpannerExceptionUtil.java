@@ -16,6 +16,7 @@
 
 package com.google.cloud.spanner.r2dbc.util;
 
+import com.google.rpc.ResourceInfo;
 import com.google.rpc.RetryInfo;
 import io.grpc.Metadata;
 import io.grpc.Status;
@@ -32,6 +33,14 @@ public class SpannerExceptionUtil {
   private static final Metadata.Key<RetryInfo> KEY_RETRY_INFO =
       ProtoUtils.keyForProto(RetryInfo.getDefaultInstance());
 
+  private static final Metadata.Key<ResourceInfo> KEY_RESOURCE_INFO =
+      ProtoUtils.keyForProto(ResourceInfo.getDefaultInstance());
+
+  private static final String SESSION_RESOURCE_TYPE =
+      "type.googleapis.com/google.spanner.v1.Session";
+
+  private static final String SESSION_NOT_FOUND_MESSAGE = "Session not found";
+
 
   private static final Set<String> RETRYABLE_ERROR_MESSAGES =
       CollectionsBuilder.setOf(
@@ -65,6 +74,40 @@ public class SpannerExceptionUtil {
     return false;
   }
 
+  /**
+   * Returns whether a streaming call that failed with an exception can be resumed from its last
+   * resume token.
+   *
+   * <p>Derived from google-cloud-java/SpannerImpl.java, whose resumable stream resumes on the
+   * same errors that are retried, plus {@code UNAVAILABLE}.
+   */
+  public static boolean isResumable(Throwable cause) {
+    return (cause instanceof StatusRuntimeException
+        && ((StatusRuntimeException) cause).getStatus().getCode() == Code.UNAVAILABLE)
+        || isRetryable(cause);
+  }
+
+  /**
+   * Returns whether an exception indicates that the Spanner session used for the call no longer
+   * exists, typically because it expired or was deleted on the server side.
+   *
+   * <p>Derived from google-cloud-java/SpannerExceptionFactory.java, which identifies the missing
+   * resource through the {@link ResourceInfo} trailer and falls back to the error message.
+   */
+  public static boolean isSessionNotFound(Throwable cause) {
+    if (!(cause instanceof StatusRuntimeException)
+        || ((StatusRuntimeException) cause).getStatus().getCode() != Code.NOT_FOUND) {
+      return false;
+    }
+
+    Metadata trailers = Status.trailersFromThrowable(cause);
+    if (trailers != null && trailers.containsKey(KEY_RESOURCE_INFO)) {
+      return SESSION_RESOURCE_TYPE.equals(trailers.get(KEY_RESOURCE_INFO).getResourceType());
+    }
+
+    return cause.getMessage() != null && cause.getMessage().contains(SESSION_NOT_FOUND_MESSAGE);
+  }
+
   /**
    * Extracts the retry delay from the Spanner exception if it exists; else returns null.
    */
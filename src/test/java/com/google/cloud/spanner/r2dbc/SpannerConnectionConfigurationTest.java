@@ -20,7 +20,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.spanner.r2dbc.client.ChannelSelection;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Consumer;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -95,4 +99,156 @@ public class SpannerConnectionConfigurationTest {
         .isEqualTo("projects/project1/instances/an-instance/databases/db");
   }
 
+  @Test
+  public void sessionPoolDefaults() throws IOException {
+    SpannerConnectionConfiguration config
+        = new SpannerConnectionConfiguration.Builder()
+        .setProjectId("project1")
+        .setInstanceName("an-instance")
+        .setDatabaseName("db")
+        .build();
+    assertThat(config.getMinSessions())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_MIN_SESSIONS);
+    assertThat(config.getMaxSessions())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_MAX_SESSIONS);
+    assertThat(config.getMaxSessionWaiters())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_MAX_SESSION_WAITERS);
+    assertThat(config.getSessionAcquireTimeout())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_SESSION_ACQUIRE_TIMEOUT);
+    assertThat(config.getMaxIdleSessions())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_MAX_IDLE_SESSIONS);
+    assertThat(config.getSessionMaintenanceInterval())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_SESSION_MAINTENANCE_INTERVAL);
+    assertThat(config.getSessionKeepAliveInterval())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_SESSION_KEEP_ALIVE_INTERVAL);
+  }
+
+  @Test
+  public void customSessionPoolSettings() throws IOException {
+    SpannerConnectionConfiguration config
+        = new SpannerConnectionConfiguration.Builder()
+        .setProjectId("project1")
+        .setInstanceName("an-instance")
+        .setDatabaseName("db")
+        .setMinSessions(5)
+        .setMaxSessions(20)
+        .setMaxSessionWaiters(50)
+        .setSessionAcquireTimeout(Duration.ofSeconds(3))
+        .build();
+    assertThat(config.getMinSessions()).isEqualTo(5);
+    assertThat(config.getMaxSessions()).isEqualTo(20);
+    assertThat(config.getMaxSessionWaiters()).isEqualTo(50);
+    assertThat(config.getSessionAcquireTimeout()).isEqualTo(Duration.ofSeconds(3));
+  }
+
+  @Test
+  public void channelSettings() throws IOException {
+    SpannerConnectionConfiguration.Builder builder
+        = new SpannerConnectionConfiguration.Builder()
+        .setProjectId("project1")
+        .setInstanceName("an-instance")
+        .setDatabaseName("db");
+    SpannerConnectionConfiguration defaultConfig = builder.build();
+    assertThat(defaultConfig.getNumChannels())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_NUM_CHANNELS);
+    assertThat(defaultConfig.getChannelSelection())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_CHANNEL_SELECTION);
+
+    SpannerConnectionConfiguration config = builder
+        .setNumChannels(8)
+        .setChannelSelection(ChannelSelection.ROUND_ROBIN)
+        .build();
+    assertThat(config.getNumChannels()).isEqualTo(8);
+    assertThat(config.getChannelSelection()).isEqualTo(ChannelSelection.ROUND_ROBIN);
+  }
+
+  @Test
+  public void plaintextEndpointNeedsNoCredentials() throws IOException {
+    SpannerConnectionConfiguration config
+        = new SpannerConnectionConfiguration.Builder()
+        .setProjectId("project1")
+        .setInstanceName("an-instance")
+        .setDatabaseName("db")
+        .setHost("localhost")
+        .setPort(9010)
+        .setUsePlaintext(true)
+        .build();
+    assertThat(config.getHost()).isEqualTo("localhost");
+    assertThat(config.getPort()).isEqualTo(9010);
+    assertThat(config.isUsePlaintext()).isTrue();
+    assertThat(config.getCredentials()).isNull();
+  }
+
+  @Test
+  public void invalidPortTriggersException() {
+    assertInvalidConfiguration(builder -> builder.setPort(0),
+        "port must be between 1 and 65535");
+  }
+
+  @Test
+  public void transportDefaults() throws IOException {
+    SpannerConnectionConfiguration config
+        = new SpannerConnectionConfiguration.Builder()
+        .setProjectId("project1")
+        .setInstanceName("an-instance")
+        .setDatabaseName("db")
+        .setUsePlaintext(true)
+        .build();
+    assertThat(config.getEventLoopGroup()).isNull();
+    assertThat(config.getChannelType()).isNull();
+    assertThat(config.getExecutor()).isNull();
+    assertThat(config.getFlowControlWindow())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_FLOW_CONTROL_WINDOW);
+    assertThat(config.getMaxInboundMessageSize())
+        .isEqualTo(SpannerConnectionConfiguration.DEFAULT_MAX_INBOUND_MESSAGE_SIZE);
+  }
+
+  @Test
+  public void channelTypeWithoutEventLoopGroupTriggersException() {
+    assertInvalidConfiguration(builder -> builder.setChannelType(NioSocketChannel.class),
+        "channelType requires an eventLoopGroup");
+  }
+
+  @Test
+  public void executorWithDirectExecutorTriggersException() {
+    assertInvalidConfiguration(builder -> builder
+        .setUseDirectExecutor(true)
+        .setExecutor(Runnable::run),
+        "executor must not be set when using a direct executor");
+  }
+
+  @Test
+  public void minSessionsAboveMaxSessionsTriggersException() {
+    assertInvalidConfiguration(builder -> builder
+        .setMinSessions(10)
+        .setMaxSessions(5),
+        "minSessions must not exceed maxSessions");
+  }
+
+  @Test
+  public void nonPositiveSessionMaintenanceIntervalTriggersException() {
+    assertInvalidConfiguration(builder -> builder.setSessionMaintenanceInterval(Duration.ZERO),
+        "sessionMaintenanceInterval must be positive");
+  }
+
+  @Test
+  public void nonPositiveSessionKeepAliveIntervalTriggersException() {
+    assertInvalidConfiguration(
+        builder -> builder.setSessionKeepAliveInterval(Duration.ofSeconds(-1)),
+        "sessionKeepAliveInterval must be positive");
+  }
+
+  private static void assertInvalidConfiguration(
+      Consumer<SpannerConnectionConfiguration.Builder> customizer, String expectedMessage) {
+    SpannerConnectionConfiguration.Builder builder = new SpannerConnectionConfiguration.Builder()
+        .setProjectId("project1")
+        .setInstanceName("an-instance")
+        .setDatabaseName("db")
+        .setUsePlaintext(true);
+    customizer.accept(builder);
+
+    assertThatThrownBy(builder::build)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(expectedMessage);
+  }
 }
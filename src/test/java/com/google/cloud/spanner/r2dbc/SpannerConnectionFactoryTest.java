@@ -17,14 +17,23 @@
 package com.google.cloud.spanner.r2dbc;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.cloud.spanner.r2dbc.client.Client;
 import com.google.spanner.v1.Session;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -34,8 +43,12 @@ public class SpannerConnectionFactoryTest {
 
   private SpannerConnectionConfiguration config;
 
+  private Client mockClient;
+
+  private final List<SpannerConnectionFactory> factories = new ArrayList<>();
+
   /**
-   * Sets up {@link SpannerConnectionConfiguration} for test.
+   * Sets up {@link SpannerConnectionConfiguration} and a mock {@link Client} for test.
    */
   @Before
   public void setupConnectionConfiguration() throws IOException {
@@ -43,29 +56,75 @@ public class SpannerConnectionFactoryTest {
         .setProjectId("a-project")
         .setInstanceName("an-instance")
         .setDatabaseName("db")
+        .setMinSessions(1)
         .build();
+    this.mockClient = Mockito.mock(Client.class);
+    when(this.mockClient.batchCreateSessions(any(), anyInt())).thenReturn(Flux.empty());
+    when(this.mockClient.deleteSession(any())).thenReturn(Mono.empty());
+  }
+
+  /**
+   * Closes the factories created by the test, stopping their session pool maintenance.
+   */
+  @After
+  public void closeFactories() {
+    this.factories.forEach(factory -> factory.close().block());
   }
 
   @Test
   public void getMetadataReturnsSingleton() {
-    Client mockClient = Mockito.mock(Client.class);
-    SpannerConnectionFactory factory = new SpannerConnectionFactory(mockClient, config);
+    SpannerConnectionFactory factory = createFactory();
 
     assertThat(factory.getMetadata()).isSameAs(SpannerConnectionFactoryMetadata.INSTANCE);
   }
 
   @Test
   public void createReturnsNewSpannerConnection() {
-
-    Client mockClient = Mockito.mock(Client.class);
     Session session = Session.newBuilder().setName("jam session").build();
-    when(mockClient.createSession("projects/a-project/instances/an-instance/databases/db"))
+    when(this.mockClient.createSession("projects/a-project/instances/an-instance/databases/db"))
         .thenReturn(Mono.just(session));
 
-    SpannerConnectionFactory factory = new SpannerConnectionFactory(mockClient, this.config);
+    SpannerConnectionFactory factory = createFactory();
     SpannerConnection connection = Mono.from(factory.create()).block();
 
     assertThat(connection.getSession().getName()).isEqualTo("jam session");
 
   }
+
+  @Test
+  public void closedConnectionSessionIsReused() {
+    Session session = Session.newBuilder().setName("jam session").build();
+    when(this.mockClient.createSession("projects/a-project/instances/an-instance/databases/db"))
+        .thenReturn(Mono.just(session));
+
+    SpannerConnectionFactory factory = createFactory();
+    SpannerConnection connection = Mono.from(factory.create()).block();
+    Mono.from(connection.close()).block();
+    SpannerConnection secondConnection = Mono.from(factory.create()).block();
+
+    assertThat(secondConnection.getSession()).isSameAs(session);
+    verify(this.mockClient, times(1))
+        .createSession("projects/a-project/instances/an-instance/databases/db");
+  }
+
+  @Test
+  public void sessionPoolIsWarmedUpOnFirstCreate() {
+    Session session = Session.newBuilder().setName("jam session").build();
+    when(this.mockClient.createSession("projects/a-project/instances/an-instance/databases/db"))
+        .thenReturn(Mono.just(session));
+
+    SpannerConnectionFactory factory = createFactory();
+    verify(this.mockClient, never()).batchCreateSessions(any(), anyInt());
+
+    Mono.from(factory.create()).block();
+    Mono.from(factory.create()).block();
+    verify(this.mockClient, times(1))
+        .batchCreateSessions("projects/a-project/instances/an-instance/databases/db", 1);
+  }
+
+  private SpannerConnectionFactory createFactory() {
+    SpannerConnectionFactory factory = new SpannerConnectionFactory(this.mockClient, this.config);
+    this.factories.add(factory);
+    return factory;
+  }
 }
@@ -17,26 +17,35 @@
 package com.google.cloud.spanner.r2dbc;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.cloud.spanner.r2dbc.client.Client;
+import com.google.cloud.spanner.r2dbc.client.SessionPool;
+import com.google.cloud.spanner.r2dbc.client.SessionPool.PreparedSession;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Value;
 import com.google.spanner.v1.CommitResponse;
 import com.google.spanner.v1.PartialResultSet;
 import com.google.spanner.v1.ResultSetMetadata;
+import com.google.spanner.v1.ResultSetStats;
 import com.google.spanner.v1.Session;
 import com.google.spanner.v1.StructType;
 import com.google.spanner.v1.StructType.Field;
 import com.google.spanner.v1.Transaction;
 import com.google.spanner.v1.Type;
 import com.google.spanner.v1.TypeCode;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.r2dbc.spi.Statement;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -49,6 +58,9 @@ public class SpannerConnectionTest {
   private static final Session TEST_SESSION =
       Session.newBuilder().setName("project/session/1234").build();
 
+  private static final Transaction INLINE_TRANSACTION =
+      Transaction.newBuilder().setId(ByteString.copyFromUtf8("inline")).build();
+
   private Client mockClient;
 
   /**
@@ -63,6 +75,11 @@ public class SpannerConnectionTest {
         .thenReturn(Mono.just(CommitResponse.getDefaultInstance()));
     when(this.mockClient.rollbackTransaction(any(), any()))
         .thenReturn(Mono.empty());
+    when(this.mockClient.beginTransactionAndExecuteStreamingSql(any(), any()))
+        .thenReturn(Flux.just(PartialResultSet.newBuilder()
+            .setMetadata(ResultSetMetadata.newBuilder().setTransaction(INLINE_TRANSACTION))
+            .setStats(ResultSetStats.getDefaultInstance())
+            .build()));
   }
 
   @Test
@@ -96,13 +113,106 @@ public class SpannerConnectionTest {
     verify(this.mockClient, never()).commitTransaction(any(), any());
 
     Mono.from(connection.beginTransaction()).block();
+    Mono.from(connection.createStatement("UPDATE books SET read = true").execute())
+        .flatMap(r -> Mono.from(r.getRowsUpdated()))
+        .block();
     Mono.from(connection.commitTransaction()).block();
+    verify(this.mockClient, never()).beginTransaction(any());
+    verify(this.mockClient, times(1))
+        .beginTransactionAndExecuteStreamingSql(TEST_SESSION, "UPDATE books SET read = true");
     verify(this.mockClient, times(1))
-        .beginTransaction(TEST_SESSION);
+        .commitTransaction(TEST_SESSION, INLINE_TRANSACTION);
+  }
+
+  @Test
+  public void emptyTransactionIsNeverBegun() {
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION);
+
+    Mono.from(connection.beginTransaction()).block();
+    Mono.from(connection.commitTransaction()).block();
+
+    verify(this.mockClient, never()).beginTransaction(any());
+    verify(this.mockClient, never()).beginTransactionAndExecuteStreamingSql(any(), any());
+    verify(this.mockClient, never()).commitTransaction(any(), any());
+  }
+
+  @Test
+  public void laterStatementsUseInlineBegunTransaction() {
+    when(this.mockClient.executeStreamingSql(any(), any(), any()))
+        .thenReturn(Flux.just(PartialResultSet.newBuilder()
+            .setStats(ResultSetStats.getDefaultInstance())
+            .build()));
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION);
+
+    Mono.from(connection.beginTransaction()).block();
+    Statement first = connection.createStatement("UPDATE books SET read = true");
+    Statement second = connection.createStatement("UPDATE books SET read = false");
+    Mono.from(first.execute()).flatMap(r -> Mono.from(r.getRowsUpdated())).block();
+    Mono.from(second.execute()).flatMap(r -> Mono.from(r.getRowsUpdated())).block();
+
+    ArgumentCaptor<Mono<Transaction>> transaction = ArgumentCaptor.forClass(Mono.class);
+    verify(this.mockClient, times(1)).executeStreamingSql(
+        eq(TEST_SESSION), transaction.capture(), eq("UPDATE books SET read = false"));
+    assertThat(transaction.getValue().block()).isEqualTo(INLINE_TRANSACTION);
+  }
+
+  @Test
+  public void firstStatementFailingBeforeSendingBeginsTransactionExplicitly() {
+    when(this.mockClient.beginTransactionAndExecuteStreamingSql(any(), any()))
+        .thenReturn(Flux.error(new IllegalStateException("no channel")));
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION);
+
+    Mono.from(connection.beginTransaction()).block();
+    assertThatThrownBy(() ->
+        Mono.from(connection.createStatement("UPDATE nothing").execute())
+            .flatMap(r -> Mono.from(r.getRowsUpdated()))
+            .block())
+        .hasMessage("no channel");
+    Mono.from(connection.commitTransaction()).block();
+
+    verify(this.mockClient, times(1)).beginTransaction(TEST_SESSION);
     verify(this.mockClient, times(1))
         .commitTransaction(TEST_SESSION, Transaction.getDefaultInstance());
   }
 
+  @Test
+  public void firstStatementFailingOnSpannerFailsTransaction() {
+    when(this.mockClient.beginTransactionAndExecuteStreamingSql(any(), any()))
+        .thenReturn(Flux.error(Status.INVALID_ARGUMENT.asRuntimeException()));
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION);
+
+    Mono.from(connection.beginTransaction()).block();
+    assertThatThrownBy(() ->
+        Mono.from(connection.createStatement("UPDATE nothing").execute())
+            .flatMap(r -> Mono.from(r.getRowsUpdated()))
+            .block())
+        .isInstanceOf(StatusRuntimeException.class);
+    assertThatThrownBy(() -> Mono.from(connection.commitTransaction()).block())
+        .isInstanceOf(IllegalStateException.class)
+        .hasCauseInstanceOf(StatusRuntimeException.class);
+
+    verify(this.mockClient, never()).beginTransaction(any());
+    verify(this.mockClient, never()).commitTransaction(any(), any());
+  }
+
+  @Test
+  public void cancelledFirstStatementFailsTransaction() {
+    when(this.mockClient.beginTransactionAndExecuteStreamingSql(any(), any()))
+        .thenReturn(Flux.never());
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION);
+
+    Mono.from(connection.beginTransaction()).block();
+    Mono.from(connection.createStatement("UPDATE books SET read = true").execute())
+        .flatMapMany(r -> r.map((row, metadata) -> row))
+        .subscribe()
+        .dispose();
+
+    assertThatThrownBy(() -> Mono.from(connection.commitTransaction()).block())
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("must be retried");
+    verify(this.mockClient, never()).beginTransaction(any());
+  }
+
   @Test
   public void rollbackTransactions() {
     SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION);
@@ -111,10 +221,86 @@ public class SpannerConnectionTest {
     verify(this.mockClient, never()).rollbackTransaction(any(), any());
 
     Mono.from(connection.beginTransaction()).block();
+    Mono.from(connection.createStatement("UPDATE books SET read = true").execute())
+        .flatMap(r -> Mono.from(r.getRowsUpdated()))
+        .block();
     Mono.from(connection.rollbackTransaction()).block();
     verify(this.mockClient, times(1))
-        .beginTransaction(TEST_SESSION);
-    verify(this.mockClient, times(1))
-        .rollbackTransaction(TEST_SESSION, Transaction.getDefaultInstance());
+        .rollbackTransaction(TEST_SESSION, INLINE_TRANSACTION);
+  }
+
+  @Test
+  public void closeDeletesUnpooledSession() {
+    when(this.mockClient.deleteSession(any())).thenReturn(Mono.empty());
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION);
+
+    Mono.from(connection.close()).block();
+
+    verify(this.mockClient, times(1)).deleteSession(TEST_SESSION);
   }
+
+  @Test
+  public void closeReleasesPooledSession() {
+    SessionPool mockPool = Mockito.mock(SessionPool.class);
+    when(mockPool.release(any())).thenReturn(Mono.empty());
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION, mockPool);
+
+    Mono.from(connection.close()).block();
+
+    verify(mockPool, times(1)).release(TEST_SESSION);
+    verify(this.mockClient, never()).deleteSession(any());
+  }
+
+  @Test
+  public void statementOnExpiredSessionSwitchesConnectionToReplacement() {
+    Session replacementSession = Session.newBuilder().setName("project/session/5678").build();
+    SessionPool mockPool = Mockito.mock(SessionPool.class);
+    when(mockPool.replace(TEST_SESSION)).thenReturn(Mono.just(replacementSession));
+    when(this.mockClient.executeStreamingSql(TEST_SESSION, Mono.empty(), "select"))
+        .thenReturn(Flux.error(Status.NOT_FOUND.withDescription("Session not found")
+            .asRuntimeException()));
+    when(this.mockClient.executeStreamingSql(replacementSession, Mono.empty(), "select"))
+        .thenReturn(Flux.just(PartialResultSet.newBuilder()
+            .setStats(ResultSetStats.getDefaultInstance())
+            .build()));
+
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION, mockPool);
+    Mono.from(connection.createStatement("select").execute())
+        .flatMap(r -> Mono.from(r.getRowsUpdated()))
+        .block();
+
+    assertThat(connection.getSession()).isEqualTo(replacementSession);
+    verify(mockPool, times(1)).replace(TEST_SESSION);
+  }
+
+  @Test
+  public void beginTransactionSwitchesToPreparedSession() {
+    Session preparedSession = Session.newBuilder().setName("prepared-session").build();
+    Transaction preparedTransaction =
+        Transaction.newBuilder().setId(ByteString.copyFromUtf8("prepared")).build();
+    SessionPool mockPool = Mockito.mock(SessionPool.class);
+    when(mockPool.takePreparedSession())
+        .thenReturn(new PreparedSession(preparedSession, preparedTransaction, 0L));
+    when(mockPool.release(any())).thenReturn(Mono.empty());
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION, mockPool);
+
+    Mono.from(connection.beginTransaction()).block();
+    Mono.from(connection.commitTransaction()).block();
+
+    assertThat(connection.getSession()).isEqualTo(preparedSession);
+    verify(mockPool, times(1)).release(TEST_SESSION);
+    verify(this.mockClient, never()).beginTransaction(any());
+    verify(this.mockClient, times(1)).commitTransaction(preparedSession, preparedTransaction);
+  }
+
+  @Test
+  public void statementOutsideTransactionLeavesPreparedSessionsAlone() {
+    SessionPool mockPool = Mockito.mock(SessionPool.class);
+    SpannerConnection connection = new SpannerConnection(mockClient, TEST_SESSION, mockPool);
+
+    connection.createStatement("select book from library");
+
+    verify(mockPool, never()).takePreparedSession();
+  }
+
 }
@@ -21,13 +21,16 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.cloud.spanner.r2dbc.codecs.Codecs;
 import com.google.cloud.spanner.r2dbc.codecs.DefaultCodecs;
+import com.google.protobuf.ListValue;
 import com.google.protobuf.Value;
 import com.google.spanner.v1.ResultSetMetadata;
 import com.google.spanner.v1.StructType;
 import com.google.spanner.v1.StructType.Field;
 import com.google.spanner.v1.Type;
 import com.google.spanner.v1.TypeCode;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.Test;
 
@@ -84,6 +87,99 @@ public class SpannerRowTest {
     assertThat(row.get(1, Long.class)).isEqualTo(25L);
   }
 
+  @Test
+  public void testRowsSharingBatch() {
+    SpannerRowMetadata rowMetadata = createRowMetadata(TypeCode.STRING, TypeCode.INT64);
+    Value[] batch = createRawSpannerRow("first", 1L, "second", 2L).toArray(new Value[0]);
+    SpannerRow first = new SpannerRow(batch, 0, rowMetadata);
+    SpannerRow second = new SpannerRow(batch, 2, rowMetadata);
+
+    assertThat(first.get(0, String.class)).isEqualTo("first");
+    assertThat(second.get("column_0", String.class)).isEqualTo("second");
+    assertThat(second.get(1, Long.class)).isEqualTo(2L);
+    assertThat(second.getValues()).containsExactly(batch[2], batch[3]);
+    assertThatThrownBy(() -> first.get(2, String.class))
+        .isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  public void testColumnsAreDecodedOncePerType() {
+    SpannerRowMetadata rowMetadata = createRowMetadata(TypeCode.STRING, TypeCode.INT64);
+    SpannerRow row = new SpannerRow(createRawSpannerRow("Hello", 25L), rowMetadata);
+
+    String value = row.get(0, String.class);
+    assertThat(row.get("column_0", String.class)).isSameAs(value);
+    assertThat(row.get(0, Object.class)).isEqualTo("Hello");
+    assertThat(row.get(1, Long.class)).isEqualTo(25L);
+    assertThat(row.get("column_1", Long.class)).isEqualTo(25L);
+  }
+
+  @Test
+  public void testMutableValuesAreNotShared() {
+    SpannerRowMetadata rowMetadata = new SpannerRowMetadata(ResultSetMetadata.newBuilder()
+        .setRowType(StructType.newBuilder()
+            .addFields(Field.newBuilder().setName("bytes")
+                .setType(Type.newBuilder().setCode(TypeCode.BYTES)))
+            .addFields(Field.newBuilder().setName("longs")
+                .setType(Type.newBuilder().setCode(TypeCode.ARRAY)
+                    .setArrayElementType(Type.newBuilder().setCode(TypeCode.INT64)))))
+        .build());
+    SpannerRow row = new SpannerRow(Arrays.asList(
+        Value.newBuilder().setStringValue("AQID").build(),
+        Value.newBuilder().setListValue(ListValue.newBuilder()
+            .addValues(Value.newBuilder().setStringValue("1"))
+            .addValues(Value.newBuilder().setStringValue("2"))).build()),
+        rowMetadata);
+
+    ByteBuffer buffer = row.get(0, ByteBuffer.class);
+    buffer.get();
+    assertThat(row.get(0, ByteBuffer.class).remaining()).isEqualTo(3);
+    byte[] bytes = row.get(0, byte[].class);
+    bytes[0] = 9;
+    assertThat(row.get(0, byte[].class)).containsExactly(1, 2, 3);
+    long[] longs = row.get(1, long[].class);
+    longs[0] = 9;
+    assertThat(row.get(1, long[].class)).containsExactly(1L, 2L);
+    Long[] boxedLongs = row.get(1, Long[].class);
+    boxedLongs[0] = 9L;
+    assertThat(row.get(1, Long[].class)).containsExactly(1L, 2L);
+  }
+
+  @Test
+  public void testPrimitiveAccessors() {
+    SpannerRowMetadata rowMetadata =
+        createRowMetadata(TypeCode.INT64, TypeCode.FLOAT64, TypeCode.BOOL, TypeCode.FLOAT64);
+    SpannerRow row = new SpannerRow(
+        createRawSpannerRow(25L, 2.5d, true, Double.NEGATIVE_INFINITY), rowMetadata);
+
+    assertThat(row.getLong(0)).isEqualTo(25L);
+    assertThat(row.getDouble(1)).isEqualTo(2.5d);
+    assertThat(row.getBoolean(2)).isTrue();
+    assertThat(row.getDouble(3)).isEqualTo(Double.NEGATIVE_INFINITY);
+    assertThat(row.isNull(0)).isFalse();
+  }
+
+  @Test
+  public void testPrimitiveAccessorsOnNull() {
+    SpannerRowMetadata rowMetadata = createRowMetadata(TypeCode.INT64);
+    SpannerRow row = new SpannerRow(createRawSpannerRow((Object) null), rowMetadata);
+
+    assertThat(row.isNull(0)).isTrue();
+    assertThatThrownBy(() -> row.getLong(0))
+        .isInstanceOf(NullPointerException.class)
+        .hasMessageContaining("Column 0 is NULL");
+  }
+
+  @Test
+  public void testPrimitiveAccessorOfOtherType() {
+    SpannerRowMetadata rowMetadata = createRowMetadata(TypeCode.STRING);
+    SpannerRow row = new SpannerRow(createRawSpannerRow("25"), rowMetadata);
+
+    assertThatThrownBy(() -> row.getLong(0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Cannot decode value of type");
+  }
+
   private static List<Value> createRawSpannerRow(Object... rowItems) {
     List<Value> listValues = new ArrayList<>();
 
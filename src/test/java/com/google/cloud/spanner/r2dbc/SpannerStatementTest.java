@@ -17,8 +17,10 @@
 package com.google.cloud.spanner.r2dbc;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,10 +32,21 @@ import com.google.spanner.v1.ResultSetStats;
 import com.google.spanner.v1.Session;
 import com.google.spanner.v1.StructType;
 import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Transaction;
 import com.google.spanner.v1.Type;
 import com.google.spanner.v1.TypeCode;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.r2dbc.spi.Result;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -139,4 +152,176 @@ public class SpannerStatementTest {
         .flatMap(r -> Mono.from(r.getRowsUpdated())).block()).isEqualTo(555);
   }
 
+  @Test
+  public void rowsAndRowCountShareOneExecution() {
+    Result result = execute(Flux.just(partialResultSet(1)));
+
+    assertThat(Flux.from(result.map((row, meta) -> row.get(1, String.class)))
+        .collectList().block()).containsExactly("abc");
+    assertThat(Mono.from(result.getRowsUpdated()).block()).isEqualTo(1);
+    verify(this.mockClient, times(1)).executeStreamingSql(any(), any(), any());
+  }
+
+  @Test
+  public void rowCountJoinsExecutionOfRowsInProgress() {
+    DirectProcessor<PartialResultSet> inputs = DirectProcessor.create();
+    Result result = execute(inputs);
+
+    List<String> received = new ArrayList<>();
+    AtomicReference<Integer> rowsUpdated = new AtomicReference<>();
+    Flux.from(result.map((row, meta) -> row.get(1, String.class))).subscribe(received::add);
+    inputs.onNext(partialResultSet());
+    Mono.from(result.getRowsUpdated()).subscribe(rowsUpdated::set);
+    inputs.onNext(partialResultSet(2).toBuilder().clearMetadata().build());
+    inputs.onComplete();
+
+    assertThat(received).containsExactly("abc", "abc");
+    assertThat(rowsUpdated.get()).isEqualTo(2);
+    verify(this.mockClient, times(1)).executeStreamingSql(any(), any(), any());
+  }
+
+  @Test
+  public void streamedRowsCanOnlyBeConsumedOnce() {
+    Result result = execute(Flux.just(partialResultSet()));
+    Flux.from(result.map((row, meta) -> row.get(1, String.class))).blockLast();
+
+    assertThatThrownBy(() -> Flux.from(result.map((row, meta) -> row.get(1, String.class)))
+        .blockLast())
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("The rows of a result can only be consumed once.");
+    verify(this.mockClient, times(1)).executeStreamingSql(any(), any(), any());
+  }
+
+  @Test
+  public void rowsMappedAfterRowCountRunTheQueryAgain() {
+    Result result = execute(Flux.just(partialResultSet(1)));
+
+    assertThat(Mono.from(result.getRowsUpdated()).block()).isEqualTo(1);
+    assertThat(Flux.from(result.map((row, meta) -> row.get(1, String.class))).collectList()
+        .block()).containsExactly("abc");
+    verify(this.mockClient, times(2)).executeStreamingSql(any(), any(), any());
+  }
+
+  @Test
+  public void statementWithoutRowsIsNotRunAgainForRows() {
+    Result result = execute(Flux.just(PartialResultSet.newBuilder()
+        .setStats(ResultSetStats.newBuilder().setRowCountExact(3))
+        .build()));
+
+    assertThat(Mono.from(result.getRowsUpdated()).block()).isEqualTo(3);
+    assertThat(Flux.from(result.map((row, meta) -> row.get(0))).collectList().block()).isEmpty();
+    verify(this.mockClient, times(1)).executeStreamingSql(any(), any(), any());
+  }
+
+  @Test
+  public void rowCountIsEmptyWhenRowsAreCancelled() {
+    Result result = execute(Flux.just(partialResultSet()).concatWith(Flux.never()));
+    Flux.from(result.map((row, meta) -> row.get(1, String.class))).take(1).blockLast();
+
+    assertThat(Mono.from(result.getRowsUpdated()).block()).isNull();
+  }
+
+  @Test
+  public void partialResultSetsAreRequestedAheadOfRowDemandOnly() {
+    AtomicLong requested = new AtomicLong();
+    Flux<PartialResultSet> inputs = Flux.range(0, 100)
+        .map(i -> partialResultSet())
+        .doOnRequest(requested::addAndGet);
+
+    when(this.mockClient.executeStreamingSql(any(), any(), any())).thenReturn(inputs);
+
+    Result result = Mono.from(
+        new SpannerStatement(this.mockClient, null, null, null, null, null, 4, null).execute())
+        .block();
+    List<String> received = new ArrayList<>();
+    Flux.from(result.map((row, meta) -> row.get(1, String.class)))
+        .subscribe(new BaseSubscriber<String>() {
+          @Override
+          protected void hookOnSubscribe(Subscription subscription) {
+            request(1);
+          }
+
+          @Override
+          protected void hookOnNext(String value) {
+            received.add(value);
+          }
+        });
+
+    assertThat(received).containsExactly("abc");
+    assertThat(requested.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void cancellingRowsCancelsExecution() {
+    AtomicBoolean cancelled = new AtomicBoolean();
+    Result result = execute(Flux.just(partialResultSet()).concatWith(Flux.never())
+        .doOnCancel(() -> cancelled.set(true)));
+
+    assertThat(Flux.from(result.map((row, meta) -> row.get(1, String.class)))
+        .take(1)
+        .collectList()
+        .block()).containsExactly("abc");
+    assertThat(cancelled).isTrue();
+  }
+
+  @Test
+  public void sessionNotFoundRetriesOnReplacementSession() {
+    Session replacementSession = Session.newBuilder().setName("project/session/5678").build();
+
+    when(this.mockClient.executeStreamingSql(TEST_SESSION, Mono.empty(), "select"))
+        .thenReturn(Flux.error(sessionNotFound()));
+    when(this.mockClient.executeStreamingSql(replacementSession, Mono.empty(), "select"))
+        .thenReturn(Flux.just(partialResultSet()));
+
+    SpannerStatement statement = new SpannerStatement(this.mockClient, TEST_SESSION,
+        Mono.empty(), "select", expired -> Mono.just(replacementSession));
+
+    assertThat(Mono.from(statement.execute())
+        .flatMapMany(r -> r.map((row, meta) -> row.get(1, String.class)))
+        .collectList()
+        .block()).containsExactly("abc");
+    verify(this.mockClient).executeStreamingSql(replacementSession, Mono.empty(), "select");
+  }
+
+  @Test
+  public void sessionNotFoundInTransactionIsNotRetried() {
+    Mono<Transaction> transaction = Mono.just(Transaction.getDefaultInstance());
+    when(this.mockClient.executeStreamingSql(TEST_SESSION, transaction, "select"))
+        .thenReturn(Flux.error(sessionNotFound()));
+
+    SpannerStatement statement = new SpannerStatement(this.mockClient, TEST_SESSION,
+        transaction, "select", expired -> Mono.error(new AssertionError("must not replace")));
+
+    assertThatThrownBy(() -> Mono.from(statement.execute())
+        .flatMapMany(r -> r.map((row, meta) -> row.get(1, String.class)))
+        .blockLast())
+        .isInstanceOf(StatusRuntimeException.class);
+    verify(this.mockClient, times(1)).executeStreamingSql(any(), any(), any());
+  }
+
+  private Result execute(Flux<PartialResultSet> inputs) {
+    when(this.mockClient.executeStreamingSql(any(), any(), any())).thenReturn(inputs);
+
+    return Mono.from(new SpannerStatement(this.mockClient, null, null, null).execute()).block();
+  }
+
+  private PartialResultSet partialResultSet() {
+    return PartialResultSet.newBuilder()
+        .setMetadata(this.resultSetMetadata)
+        .setChunkedValue(false)
+        .addValues(this.a1)
+        .addValues(this.a2)
+        .build();
+  }
+
+  private PartialResultSet partialResultSet(long rowCountExact) {
+    return partialResultSet().toBuilder()
+        .setStats(ResultSetStats.newBuilder().setRowCountExact(rowCountExact))
+        .build();
+  }
+
+  private static StatusRuntimeException sessionNotFound() {
+    return Status.NOT_FOUND.withDescription("Session not found: project/session/1234")
+        .asRuntimeException();
+  }
 }
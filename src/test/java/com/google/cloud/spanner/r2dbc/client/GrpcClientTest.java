@@ -17,28 +17,65 @@
 package com.google.cloud.spanner.r2dbc.client;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.BatchCreateSessionsRequest;
+import com.google.spanner.v1.BatchCreateSessionsResponse;
 import com.google.spanner.v1.CreateSessionRequest;
 import com.google.spanner.v1.ExecuteSqlRequest;
 import com.google.spanner.v1.PartialResultSet;
+import com.google.spanner.v1.ResultSetMetadata;
 import com.google.spanner.v1.Session;
 import com.google.spanner.v1.SpannerGrpc;
 import com.google.spanner.v1.SpannerGrpc.SpannerImplBase;
+import com.google.spanner.v1.SpannerGrpc.SpannerStub;
 import com.google.spanner.v1.Transaction;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ForwardingClientCall.SimpleForwardingClientCall;
 import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
 import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Test for {@link GrpcClient}.
@@ -68,6 +105,79 @@ public class GrpcClientTest {
     assertEquals("testDb", requestCaptor.getValue().getDatabase());
   }
 
+  @Test
+  public void testBatchCreateSessions() throws IOException {
+
+    AtomicReference<List<Session>> sessions = new AtomicReference<>();
+    SpannerImplBase spannerSpy = doTest(new SpannerImplBase() {
+          @Override
+          public void batchCreateSessions(BatchCreateSessionsRequest request,
+              StreamObserver<BatchCreateSessionsResponse> responseObserver) {
+            responseObserver.onNext(BatchCreateSessionsResponse.newBuilder()
+                .addSession(Session.newBuilder().setName("session1"))
+                .addSession(Session.newBuilder().setName("session2"))
+                .build());
+            responseObserver.onCompleted();
+          }
+        },
+        // call the method under test
+        grpcClient -> sessions.set(
+            grpcClient.batchCreateSessions("testDb", 2).collectList().block())
+    );
+
+    // verify the service was called correctly
+    ArgumentCaptor<BatchCreateSessionsRequest> requestCaptor = ArgumentCaptor
+        .forClass(BatchCreateSessionsRequest.class);
+    verify(spannerSpy).batchCreateSessions(requestCaptor.capture(), any());
+    assertEquals("testDb", requestCaptor.getValue().getDatabase());
+    assertEquals(2, requestCaptor.getValue().getSessionCount());
+    assertEquals(2, sessions.get().size());
+    assertEquals("session1", sessions.get().get(0).getName());
+  }
+
+  @Test
+  public void testBatchCreateSessionsIsSplitOverChannels() throws IOException {
+    SpannerImplBase spannerSpy = spy(new SpannerImplBase() {
+      @Override
+      public void batchCreateSessions(BatchCreateSessionsRequest request,
+          StreamObserver<BatchCreateSessionsResponse> responseObserver) {
+        BatchCreateSessionsResponse.Builder response = BatchCreateSessionsResponse.newBuilder();
+        for (int i = 0; i < request.getSessionCount(); i++) {
+          response.addSession(Session.getDefaultInstance());
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+      }
+    });
+    String serverName = InProcessServerBuilder.generateName();
+    Server server = InProcessServerBuilder
+        .forName(serverName).directExecutor().addService(spannerSpy).build().start();
+    List<ManagedChannel> channels = new ArrayList<>();
+    List<SpannerStub> stubs = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      ManagedChannel channel =
+          InProcessChannelBuilder.forName(serverName).directExecutor().build();
+      channels.add(channel);
+      stubs.add(SpannerGrpc.newStub(channel));
+    }
+
+    try {
+      GrpcClient grpcClient = new GrpcClient(stubs, ChannelSelection.ROUND_ROBIN);
+      assertEquals(7, grpcClient.batchCreateSessions("testDb", 7).count().block().intValue());
+    } finally {
+      channels.forEach(ManagedChannel::shutdown);
+      server.shutdown();
+    }
+
+    ArgumentCaptor<BatchCreateSessionsRequest> requestCaptor = ArgumentCaptor
+        .forClass(BatchCreateSessionsRequest.class);
+    verify(spannerSpy, times(3)).batchCreateSessions(requestCaptor.capture(), any());
+    assertEquals(Arrays.asList(3, 3, 1), requestCaptor.getAllValues().stream()
+        .map(BatchCreateSessionsRequest::getSessionCount)
+        .sorted(Comparator.reverseOrder())
+        .collect(Collectors.toList()));
+  }
+
   @Test
   public void testExecuteStreamingSql() throws IOException {
 
@@ -100,6 +210,275 @@ public class GrpcClientTest {
     assertEquals(transId, requestCaptor.getValue().getTransaction().getId());
   }
 
+  @Test
+  public void testBeginTransactionAndExecuteStreamingSql() throws IOException {
+
+    Session session = Session.newBuilder().setName("/session/1234").build();
+    String sql = "UPDATE books SET read = true";
+    Transaction transaction =
+        Transaction.newBuilder().setId(ByteString.copyFromUtf8("trans_id")).build();
+    AtomicReference<PartialResultSet> firstResult = new AtomicReference<>();
+
+    SpannerImplBase spannerSpy = doTest(new SpannerImplBase() {
+          @Override
+          public void executeStreamingSql(ExecuteSqlRequest request,
+              StreamObserver<PartialResultSet> responseObserver) {
+            responseObserver.onNext(PartialResultSet.newBuilder()
+                .setMetadata(ResultSetMetadata.newBuilder().setTransaction(transaction))
+                .build());
+            responseObserver.onCompleted();
+          }
+        },
+        // call the method under test
+        grpcClient -> firstResult.set(
+            grpcClient.beginTransactionAndExecuteStreamingSql(session, sql).blockFirst()));
+
+    ArgumentCaptor<ExecuteSqlRequest> requestCaptor = ArgumentCaptor
+        .forClass(ExecuteSqlRequest.class);
+    verify(spannerSpy).executeStreamingSql(requestCaptor.capture(), any());
+    assertEquals(sql, requestCaptor.getValue().getSql());
+    assertTrue(requestCaptor.getValue().getTransaction().getBegin().hasReadWrite());
+    assertEquals(transaction, firstResult.get().getMetadata().getTransaction());
+  }
+
+  @Test
+  public void testStreamingSqlResumesFromLastResumeToken() throws IOException {
+    Session session = Session.newBuilder().setName("/session/1234").build();
+    ByteString resumeToken = ByteString.copyFromUtf8("token1");
+    AtomicInteger calls = new AtomicInteger();
+    AtomicReference<List<String>> results = new AtomicReference<>();
+
+    SpannerImplBase spannerSpy = doTest(new SpannerImplBase() {
+          @Override
+          public void executeStreamingSql(ExecuteSqlRequest request,
+              StreamObserver<PartialResultSet> responseObserver) {
+            if (calls.getAndIncrement() == 0) {
+              responseObserver.onNext(partialResultSet("a", resumeToken));
+              // held back, and sent again after resuming
+              responseObserver.onNext(partialResultSet("b", ByteString.EMPTY));
+              responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+            } else {
+              responseObserver.onNext(partialResultSet("b", ByteString.EMPTY));
+              responseObserver.onNext(partialResultSet("c", ByteString.EMPTY));
+              responseObserver.onCompleted();
+            }
+          }
+        },
+        // call the method under test
+        grpcClient -> results.set(grpcClient.executeStreamingSql(session, Mono.empty(), "SELECT")
+            .map(partialResultSet -> partialResultSet.getValues(0).getStringValue())
+            .collectList()
+            .block()));
+
+    assertEquals(Arrays.asList("a", "b", "c"), results.get());
+    ArgumentCaptor<ExecuteSqlRequest> requestCaptor = ArgumentCaptor
+        .forClass(ExecuteSqlRequest.class);
+    verify(spannerSpy, times(2)).executeStreamingSql(requestCaptor.capture(), any());
+    assertEquals(ByteString.EMPTY, requestCaptor.getAllValues().get(0).getResumeToken());
+    assertEquals(resumeToken, requestCaptor.getAllValues().get(1).getResumeToken());
+  }
+
+  @Test
+  public void testStreamingSqlFailsAfterReleasingResultsWithoutResumeToken() throws IOException {
+    Session session = Session.newBuilder().setName("/session/1234").build();
+    AtomicInteger results = new AtomicInteger();
+    AtomicReference<Throwable> error = new AtomicReference<>();
+
+    SpannerImplBase spannerSpy = doTest(new SpannerImplBase() {
+          @Override
+          public void executeStreamingSql(ExecuteSqlRequest request,
+              StreamObserver<PartialResultSet> responseObserver) {
+            responseObserver.onNext(partialResultSet("a", ByteString.copyFromUtf8("token1")));
+            // too many to hold back, so they are handed over and would be sent again
+            for (int i = 0; i < GrpcClient.MAX_BUFFERED_RESULTS; i++) {
+              responseObserver.onNext(partialResultSet("b", ByteString.EMPTY));
+            }
+            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+          }
+        },
+        // call the method under test
+        grpcClient -> grpcClient.executeStreamingSql(session, Mono.empty(), "SELECT")
+            .doOnNext(partialResultSet -> results.incrementAndGet())
+            .doOnError(error::set)
+            .onErrorResume(e -> Flux.empty())
+            .blockLast());
+
+    assertEquals(GrpcClient.MAX_BUFFERED_RESULTS + 1, results.get());
+    assertTrue(error.get() instanceof StatusRuntimeException);
+    verify(spannerSpy, times(1)).executeStreamingSql(any(), any());
+  }
+
+  @Test
+  public void testStreamingSqlWithoutResumeTokenReleasesResultsAtBufferCap() throws IOException {
+    Session session = Session.newBuilder().setName("/session/1234").build();
+    AtomicReference<PartialResultSet> firstResult = new AtomicReference<>();
+
+    doTest(new SpannerImplBase() {
+          @Override
+          public void executeStreamingSql(ExecuteSqlRequest request,
+              StreamObserver<PartialResultSet> responseObserver) {
+            // neither sends a resume token nor completes
+            for (int i = 0; i < GrpcClient.MAX_BUFFERED_RESULTS; i++) {
+              responseObserver.onNext(partialResultSet("a", ByteString.EMPTY));
+            }
+          }
+        },
+        // call the method under test
+        grpcClient -> firstResult.set(
+            grpcClient.executeStreamingSql(session, Mono.empty(), "SELECT")
+                .blockFirst(Duration.ofSeconds(5))));
+
+    assertEquals("a", firstResult.get().getValues(0).getStringValue());
+  }
+
+  @Test
+  public void testReadWriteStreamingSqlWithoutResumeTokenIsNotRestarted() throws IOException {
+    Session session = Session.newBuilder().setName("/session/1234").build();
+    Transaction transaction =
+        Transaction.newBuilder().setId(ByteString.copyFromUtf8("trans_id")).build();
+    AtomicReference<Throwable> error = new AtomicReference<>();
+
+    SpannerImplBase spannerSpy = doTest(new SpannerImplBase() {
+          @Override
+          public void executeStreamingSql(ExecuteSqlRequest request,
+              StreamObserver<PartialResultSet> responseObserver) {
+            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+          }
+        },
+        // call the method under test
+        grpcClient -> grpcClient
+            .executeStreamingSql(session, Mono.just(transaction), "UPDATE books SET read = true")
+            .doOnError(error::set)
+            .onErrorResume(e -> Flux.empty())
+            .blockLast());
+
+    assertTrue(error.get() instanceof StatusRuntimeException);
+    verify(spannerSpy, times(1)).executeStreamingSql(any(), any());
+  }
+
+  @Test
+  public void testCancellingStreamingSqlCancelsCall() throws Exception {
+    Session session = Session.newBuilder().setName("/session/1234").build();
+    CountDownLatch callCancelled = new CountDownLatch(1);
+
+    doTest(new SpannerImplBase() {
+          @Override
+          public void executeStreamingSql(ExecuteSqlRequest request,
+              StreamObserver<PartialResultSet> responseObserver) {
+            ((ServerCallStreamObserver<PartialResultSet>) responseObserver)
+                .setOnCancelHandler(callCancelled::countDown);
+            // never completes on its own
+            responseObserver.onNext(partialResultSet("a", ByteString.copyFromUtf8("token1")));
+            responseObserver.onNext(partialResultSet("b", ByteString.copyFromUtf8("token2")));
+          }
+        },
+        // call the method under test
+        grpcClient -> grpcClient.executeStreamingSql(session, Mono.empty(), "SELECT 1")
+            .take(1)
+            .blockLast());
+
+    assertTrue(callCancelled.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testCancellingStreamingSqlWithHeldBackResultsCancelsCall() throws Exception {
+    Session session = Session.newBuilder().setName("/session/1234").build();
+    CountDownLatch resultSent = new CountDownLatch(1);
+    CountDownLatch callCancelled = new CountDownLatch(1);
+
+    doTest(new SpannerImplBase() {
+          @Override
+          public void executeStreamingSql(ExecuteSqlRequest request,
+              StreamObserver<PartialResultSet> responseObserver) {
+            ((ServerCallStreamObserver<PartialResultSet>) responseObserver)
+                .setOnCancelHandler(callCancelled::countDown);
+            // held back until a resume token that never comes
+            responseObserver.onNext(partialResultSet("a", ByteString.EMPTY));
+            resultSent.countDown();
+          }
+        },
+        // call the method under test
+        grpcClient -> {
+          Disposable subscription =
+              grpcClient.executeStreamingSql(session, Mono.empty(), "SELECT 1").subscribe();
+          try {
+            assertTrue(resultSent.await(5, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          subscription.dispose();
+        });
+
+    assertTrue(callCancelled.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testStreamingSqlOnResultSchedulerRequestsOnlyThePrefetch() throws IOException {
+    Session session = Session.newBuilder().setName("/session/1234").build();
+    String serverName = InProcessServerBuilder.generateName();
+    Server server = InProcessServerBuilder.forName(serverName).directExecutor()
+        .addService(new SpannerImplBase() {
+          @Override
+          public void executeStreamingSql(ExecuteSqlRequest request,
+              StreamObserver<PartialResultSet> responseObserver) {
+            for (int i = 0; i < 40; i++) {
+              responseObserver.onNext(PartialResultSet.getDefaultInstance());
+            }
+            responseObserver.onCompleted();
+          }
+        })
+        .build().start();
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    List<Integer> requests = new CopyOnWriteArrayList<>();
+    Channel countingChannel = ClientInterceptors.intercept(channel, new ClientInterceptor() {
+      @Override
+      public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+          MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        return new SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+          @Override
+          public void request(int numMessages) {
+            requests.add(numMessages);
+            super.request(numMessages);
+          }
+        };
+      }
+    });
+    Scheduler scheduler = Schedulers.newSingle("results");
+
+    try {
+      GrpcClient grpcClient = new GrpcClient(
+          Collections.singletonList(SpannerGrpc.newStub(countingChannel)),
+          ChannelSelection.ROUND_ROBIN, scheduler, 4);
+      assertEquals(40, grpcClient.executeStreamingSql(session, Mono.empty(), "SELECT 1")
+          .count().block().intValue());
+    } finally {
+      scheduler.dispose();
+      channel.shutdown();
+      server.shutdown();
+    }
+
+    assertTrue(requests.stream().allMatch(numMessages -> numMessages <= 4));
+    assertTrue(requests.stream().mapToInt(Integer::intValue).sum() >= 40);
+  }
+
+  @Test
+  public void testSocketChannelTypeMatchesEventLoopGroup() throws InterruptedException {
+    EventLoopGroup eventLoopGroup = GrpcClient.createEventLoopGroup(1);
+    try {
+      assertEquals(Epoll.isAvailable() ? EpollSocketChannel.class : NioSocketChannel.class,
+          GrpcClient.socketChannelType(eventLoopGroup));
+    } finally {
+      eventLoopGroup.shutdownGracefully().await();
+    }
+  }
+
+  private static PartialResultSet partialResultSet(String value, ByteString resumeToken) {
+    return PartialResultSet.newBuilder()
+        .addValues(Value.newBuilder().setStringValue(value))
+        .setResumeToken(resumeToken)
+        .build();
+  }
+
   /**
    * Starts and shuts down an in-process gRPC service based on the {@code serviceImpl} provided,
    * while allowing a test to execute using the {@link GrpcClient}.
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.spanner.r2dbc.SpannerConnectionConfiguration;
+import com.google.protobuf.ByteString;
+import com.google.spanner.v1.PartialResultSet;
+import com.google.spanner.v1.Session;
+import com.google.spanner.v1.Transaction;
+import io.grpc.Status;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test for {@link SessionPool}.
+ */
+public class SessionPoolTest {
+
+  private static final String DB_NAME = "projects/a-project/instances/an-instance/databases/db";
+
+  private Client mockClient;
+
+  private AtomicInteger sessionCounter;
+
+  /**
+   * Sets up a mock client that hands out uniquely named sessions.
+   */
+  @Before
+  public void setupMocks() {
+    this.mockClient = mock(Client.class);
+    this.sessionCounter = new AtomicInteger();
+    when(this.mockClient.createSession(DB_NAME)).thenAnswer(invocation -> Mono.fromSupplier(
+        () -> Session.newBuilder().setName("session" + this.sessionCounter.incrementAndGet())
+            .build()));
+    when(this.mockClient.batchCreateSessions(eq(DB_NAME), anyInt())).thenAnswer(invocation ->
+        Flux.range(0, invocation.getArgument(1)).map(
+            i -> Session.newBuilder().setName("session" + this.sessionCounter.incrementAndGet())
+                .build()));
+    when(this.mockClient.deleteSession(any())).thenReturn(Mono.empty());
+  }
+
+  @Test
+  public void releasedSessionIsReused() throws IOException {
+    SessionPool pool = new SessionPool(this.mockClient, config(0, 10, 10));
+
+    Session first = pool.acquire().block();
+    pool.release(first).block();
+    Session second = pool.acquire().block();
+
+    assertThat(second).isSameAs(first);
+    assertThat(pool.getTotalSessions()).isEqualTo(1);
+    verify(this.mockClient, times(1)).createSession(DB_NAME);
+    verify(this.mockClient, times(0)).deleteSession(any());
+  }
+
+  @Test
+  public void waiterReceivesReleasedSession() throws IOException {
+    SessionPool pool = new SessionPool(this.mockClient, config(0, 1, 10));
+
+    Session first = pool.acquire().block();
+    Mono<Session> waiting = pool.acquire().cache();
+    waiting.subscribe();
+    pool.release(first).block();
+
+    assertThat(waiting.block()).isSameAs(first);
+    assertThat(pool.getIdleSessions()).isZero();
+  }
+
+  @Test
+  public void tooManyWaitersFails() throws IOException {
+    SessionPool pool = new SessionPool(this.mockClient, config(0, 1, 0));
+
+    pool.acquire().block();
+
+    assertThatThrownBy(() -> pool.acquire().block())
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("maximum of 0 waiters");
+  }
+
+  @Test
+  public void acquireTimesOut() throws IOException {
+    SessionPool pool = new SessionPool(this.mockClient,
+        new SpannerConnectionConfiguration.Builder()
+            .setProjectId("a-project")
+            .setInstanceName("an-instance")
+            .setDatabaseName("db")
+            .setMaxSessions(1)
+            .setSessionAcquireTimeout(Duration.ofMillis(50))
+            .build());
+
+    Session first = pool.acquire().block();
+
+    assertThatThrownBy(() -> pool.acquire().block())
+        .hasCauseInstanceOf(TimeoutException.class);
+
+    // the timed out waiter must not swallow the session
+    pool.release(first).block();
+    assertThat(pool.getIdleSessions()).isEqualTo(1);
+  }
+
+  @Test
+  public void warmUpCreatesMinSessions() throws IOException {
+    SessionPool pool = new SessionPool(this.mockClient, config(3, 10, 10));
+
+    pool.warmUp().block();
+
+    assertThat(pool.getIdleSessions()).isEqualTo(3);
+    assertThat(pool.getTotalSessions()).isEqualTo(3);
+    verify(this.mockClient, times(1)).batchCreateSessions(DB_NAME, 3);
+    verify(this.mockClient, never()).createSession(any());
+  }
+
+  @Test
+  public void warmUpRequestsRemainderOfPartialBatch() throws IOException {
+    when(this.mockClient.batchCreateSessions(DB_NAME, 5)).thenReturn(Flux.just(
+        Session.newBuilder().setName("a").build(),
+        Session.newBuilder().setName("b").build()));
+
+    SessionPool pool = new SessionPool(this.mockClient, config(5, 10, 10));
+    pool.warmUp().block();
+
+    assertThat(pool.getIdleSessions()).isEqualTo(5);
+    verify(this.mockClient, times(1)).batchCreateSessions(DB_NAME, 5);
+    verify(this.mockClient, times(1)).batchCreateSessions(DB_NAME, 3);
+  }
+
+  @Test
+  public void warmUpReleasesCapacityOfFailedBatch() throws IOException {
+    when(this.mockClient.batchCreateSessions(DB_NAME, 4))
+        .thenReturn(Flux.error(new IllegalStateException("no sessions today")));
+
+    SessionPool pool = new SessionPool(this.mockClient, config(4, 10, 10));
+
+    assertThatThrownBy(() -> pool.warmUp().block())
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(pool.getTotalSessions()).isZero();
+  }
+
+  @Test
+  public void replaceDropsExpiredSession() throws IOException {
+    SessionPool pool = new SessionPool(this.mockClient, config(0, 1, 10));
+
+    Session expired = pool.acquire().block();
+    Session replacement = pool.replace(expired).block();
+
+    assertThat(replacement).isNotEqualTo(expired);
+    assertThat(pool.getTotalSessions()).isEqualTo(1);
+    verify(this.mockClient, never()).deleteSession(any());
+    verify(this.mockClient, times(1)).forgetSession(expired);
+  }
+
+  @Test
+  public void warmUpPreparesFractionOfSessionsForWrites() throws IOException {
+    when(this.mockClient.beginTransaction(any())).thenAnswer(invocation -> Mono.just(
+        Transaction.newBuilder()
+            .setId(ByteString.copyFromUtf8(invocation.<Session>getArgument(0).getName()))
+            .build()));
+    SessionPool pool = new SessionPool(this.mockClient,
+        configBuilder(4, 10, 10).setWriteSessionsFraction(0.5).build());
+
+    pool.warmUp().block();
+
+    assertThat(pool.getPreparedSessions()).isEqualTo(2);
+    assertThat(pool.getIdleSessions()).isEqualTo(4);
+    verify(this.mockClient, times(2)).beginTransaction(any());
+  }
+
+  @Test
+  public void preparedSessionIsTakenOnlyOnce() throws IOException {
+    when(this.mockClient.beginTransaction(any())).thenReturn(Mono.just(
+        Transaction.newBuilder().setId(ByteString.copyFromUtf8("tx")).build()));
+    SessionPool pool = new SessionPool(this.mockClient,
+        configBuilder(1, 10, 10).setWriteSessionsFraction(1).build());
+    pool.warmUp().block();
+
+    assertThat(pool.takePreparedSession().getTransaction().getId().toStringUtf8())
+        .isEqualTo("tx");
+    assertThat(pool.takePreparedSession()).isNull();
+  }
+
+  @Test
+  public void acquireHandsOutPreparedSessionsLast() throws IOException {
+    when(this.mockClient.beginTransaction(any())).thenAnswer(invocation -> Mono.just(
+        Transaction.newBuilder()
+            .setId(ByteString.copyFromUtf8(invocation.<Session>getArgument(0).getName()))
+            .build()));
+    SessionPool pool = new SessionPool(this.mockClient,
+        configBuilder(2, 2, 10).setWriteSessionsFraction(0.5).build());
+    pool.warmUp().block();
+
+    Session plainSession = pool.acquire().block();
+    assertThat(pool.getPreparedSessions()).isEqualTo(1);
+
+    // with no other session idle, the prepared session is handed out and its transaction dropped
+    Session preparedSession = pool.acquire().block();
+    assertThat(preparedSession).isNotEqualTo(plainSession);
+    assertThat(pool.getPreparedSessions()).isZero();
+    verify(this.mockClient, times(1)).beginTransaction(preparedSession);
+  }
+
+  @Test
+  public void releaseReplenishesPreparedSessions() throws IOException {
+    when(this.mockClient.beginTransaction(any())).thenReturn(Mono.just(
+        Transaction.newBuilder().setId(ByteString.copyFromUtf8("tx")).build()));
+    SessionPool pool = new SessionPool(this.mockClient,
+        configBuilder(1, 10, 10).setWriteSessionsFraction(1).build());
+    pool.warmUp().block();
+
+    Session session = pool.takePreparedSession().getSession();
+    pool.release(session).block();
+
+    // the session may have run other transactions, so a fresh one is begun on it
+    assertThat(pool.getPreparedSessions()).isEqualTo(1);
+    verify(this.mockClient, times(2)).beginTransaction(session);
+  }
+
+  @Test
+  public void expiredPreparedSessionIsNotHandedOut() throws IOException {
+    when(this.mockClient.beginTransaction(any())).thenReturn(Mono.just(
+        Transaction.newBuilder().setId(ByteString.copyFromUtf8("tx")).build()));
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L);
+    SessionPool pool = new SessionPool(this.mockClient,
+        configBuilder(1, 10, 10).setWriteSessionsFraction(1).build(), clock);
+    pool.warmUp().block();
+
+    when(clock.millis()).thenReturn(SessionPool.PREPARED_TRANSACTION_MAX_AGE.toMillis());
+
+    assertThat(pool.takePreparedSession()).isNull();
+    // the session itself is still usable
+    assertThat(pool.getIdleSessions()).isEqualTo(1);
+    assertThat(pool.acquire().block()).isNotNull();
+  }
+
+  @Test
+  public void maintainRefreshesAgingPreparedTransactions() throws IOException {
+    when(this.mockClient.beginTransaction(any())).thenReturn(Mono.just(
+        Transaction.newBuilder().setId(ByteString.copyFromUtf8("tx")).build()));
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L);
+    SessionPool pool = new SessionPool(this.mockClient,
+        configBuilder(1, 10, 10).setWriteSessionsFraction(1).build(), clock);
+    pool.warmUp().block();
+
+    when(clock.millis()).thenReturn(SessionPool.PREPARED_TRANSACTION_REFRESH_INTERVAL.toMillis());
+    pool.maintain().block();
+
+    // begun anew before it expires, so it is still ready at its original expiry
+    when(clock.millis()).thenReturn(SessionPool.PREPARED_TRANSACTION_MAX_AGE.toMillis());
+    Session session = pool.takePreparedSession().getSession();
+    verify(this.mockClient, times(2)).beginTransaction(session);
+  }
+
+  @Test
+  public void preparedTransactionsAreNotRefreshedWithoutDemand() throws IOException {
+    when(this.mockClient.beginTransaction(any())).thenReturn(Mono.just(
+        Transaction.newBuilder().setId(ByteString.copyFromUtf8("tx")).build()));
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L);
+    SessionPool pool = new SessionPool(this.mockClient,
+        configBuilder(1, 10, 10).setWriteSessionsFraction(1).build(), clock);
+    pool.warmUp().block();
+
+    when(clock.millis())
+        .thenReturn(SessionPool.PREPARED_TRANSACTION_DEMAND_WINDOW.toMillis());
+    pool.maintain().block();
+
+    assertThat(pool.getPreparedSessions()).isZero();
+    assertThat(pool.getIdleSessions()).isEqualTo(1);
+    verify(this.mockClient, times(1)).beginTransaction(any());
+  }
+
+  @Test
+  public void closeDeletesIdleSessions() throws IOException {
+    SessionPool pool = new SessionPool(this.mockClient, config(2, 10, 10));
+    pool.warmUp().block();
+
+    Session inUse = pool.acquire().block();
+    pool.close().block();
+    verify(this.mockClient, times(1)).deleteSession(any());
+
+    pool.release(inUse).block();
+    verify(this.mockClient).deleteSession(inUse);
+    assertThat(pool.getTotalSessions()).isZero();
+
+    assertThatThrownBy(() -> pool.acquire().block())
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("The session pool is closed.");
+  }
+
+  @Test
+  public void maintainPingsSessionsIdleBeyondKeepAliveInterval() throws IOException {
+    when(this.mockClient.executeStreamingSql(any(), any(), any())).thenReturn(Flux.empty());
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L);
+    SessionPool pool = new SessionPool(this.mockClient, config(2, 10, 10), clock);
+    pool.warmUp().block();
+
+    when(clock.millis()).thenReturn(Duration.ofMinutes(10).toMillis());
+    pool.maintain().block();
+    verify(this.mockClient, never()).executeStreamingSql(any(), any(), any());
+
+    when(clock.millis()).thenReturn(Duration.ofMinutes(31).toMillis());
+    pool.maintain().block();
+    verify(this.mockClient, times(2)).executeStreamingSql(any(), any(), eq("SELECT 1"));
+    assertThat(pool.getIdleSessions()).isEqualTo(2);
+  }
+
+  @Test
+  public void maintainReplacesSessionsFailingKeepAlive() throws IOException {
+    when(this.mockClient.executeStreamingSql(any(), any(), any()))
+        .thenReturn(Flux.error(Status.NOT_FOUND.asRuntimeException()));
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L);
+    SessionPool pool = new SessionPool(this.mockClient, config(1, 10, 10), clock);
+    pool.warmUp().block();
+    Session original = pool.acquire().block();
+    pool.release(original).block();
+
+    when(clock.millis()).thenReturn(Duration.ofMinutes(31).toMillis());
+    pool.maintain().block();
+
+    assertThat(pool.getTotalSessions()).isEqualTo(1);
+    assertThat(pool.acquire().block()).isNotEqualTo(original);
+    verify(this.mockClient, times(2)).batchCreateSessions(DB_NAME, 1);
+    verify(this.mockClient, times(1)).forgetSession(original);
+  }
+
+  @Test
+  public void waiterGetsNewSessionWhenKeepAliveFails() throws IOException {
+    DirectProcessor<PartialResultSet> keepAlive = DirectProcessor.create();
+    when(this.mockClient.executeStreamingSql(any(), any(), any())).thenReturn(keepAlive);
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L);
+    SessionPool pool = new SessionPool(this.mockClient, config(1, 1, 10), clock);
+    pool.warmUp().block();
+
+    when(clock.millis()).thenReturn(Duration.ofMinutes(31).toMillis());
+    pool.maintain().subscribe();
+    // the only session is out being pinged, so the caller queues up
+    AtomicReference<Session> acquired = new AtomicReference<>();
+    pool.acquire().subscribe(acquired::set);
+    assertThat(acquired.get()).isNull();
+
+    keepAlive.onError(Status.NOT_FOUND.asRuntimeException());
+
+    assertThat(acquired.get()).isNotNull();
+    assertThat(pool.getTotalSessions()).isEqualTo(1);
+    verify(this.mockClient, times(1)).createSession(DB_NAME);
+  }
+
+  @Test
+  public void maintainEvictsIdleSessionsBeyondMaxIdle() throws IOException {
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L);
+    SessionPool pool = new SessionPool(this.mockClient,
+        configBuilder(1, 10, 10).setMaxIdleSessions(2).build(), clock);
+
+    List<Session> sessions = Flux.range(0, 5)
+        .flatMap(i -> pool.acquire())
+        .collectList()
+        .block();
+    Flux.fromIterable(sessions).flatMap(pool::release).blockLast();
+
+    when(clock.millis()).thenReturn(Duration.ofMinutes(1).toMillis());
+    pool.maintain().block();
+
+    assertThat(pool.getIdleSessions()).isEqualTo(2);
+    assertThat(pool.getTotalSessions()).isEqualTo(2);
+    verify(this.mockClient, times(3)).deleteSession(any());
+  }
+
+  private static SpannerConnectionConfiguration config(
+      int minSessions, int maxSessions, int maxWaiters) throws IOException {
+    return configBuilder(minSessions, maxSessions, maxWaiters).build();
+  }
+
+  private static SpannerConnectionConfiguration.Builder configBuilder(
+      int minSessions, int maxSessions, int maxWaiters) {
+    return new SpannerConnectionConfiguration.Builder()
+        .setProjectId("a-project")
+        .setInstanceName("an-instance")
+        .setDatabaseName("db")
+        .setMinSessions(minSessions)
+        .setMaxSessions(maxSessions)
+        .setMaxSessionWaiters(maxWaiters);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.spanner.v1.Session;
+import com.google.spanner.v1.SpannerGrpc;
+import com.google.spanner.v1.SpannerGrpc.SpannerStub;
+import io.grpc.ManagedChannel;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Test for {@link SpannerStubPool}.
+ */
+public class SpannerStubPoolTest {
+
+  private static final int CHANNEL_COUNT = 3;
+
+  private List<ManagedChannel> channels;
+
+  private List<SpannerStub> stubs;
+
+  /**
+   * Creates stubs on in-process channels; no calls are actually made on them.
+   */
+  @Before
+  public void setupStubs() {
+    this.channels = new ArrayList<>();
+    this.stubs = new ArrayList<>();
+    for (int i = 0; i < CHANNEL_COUNT; i++) {
+      ManagedChannel channel = InProcessChannelBuilder.forName("channel" + i).build();
+      this.channels.add(channel);
+      this.stubs.add(SpannerGrpc.newStub(channel));
+    }
+  }
+
+  @After
+  public void shutdownChannels() {
+    this.channels.forEach(ManagedChannel::shutdownNow);
+  }
+
+  @Test
+  public void roundRobinUsesChannelsInTurn() {
+    SpannerStubPool pool = new SpannerStubPool(this.stubs, ChannelSelection.ROUND_ROBIN);
+
+    assertThat(pool.selectChannel()).isEqualTo(0);
+    assertThat(pool.selectChannel()).isEqualTo(1);
+    assertThat(pool.selectChannel()).isEqualTo(2);
+    assertThat(pool.selectChannel()).isEqualTo(0);
+  }
+
+  @Test
+  public void leastInFlightAvoidsBusyChannels() {
+    SpannerStubPool pool = new SpannerStubPool(this.stubs, ChannelSelection.LEAST_IN_FLIGHT);
+    Disposable first = pool.call(0, stub -> Mono.never()).subscribe();
+    Disposable second = pool.call(1, stub -> Mono.never()).subscribe();
+
+    assertThat(pool.getCallsInFlight(0)).isEqualTo(1);
+    for (int i = 0; i < CHANNEL_COUNT; i++) {
+      assertThat(pool.selectChannel()).isEqualTo(2);
+    }
+
+    first.dispose();
+    second.dispose();
+    assertThat(pool.getCallsInFlight(0)).isEqualTo(0);
+    assertThat(pool.getCallsInFlight(1)).isEqualTo(0);
+  }
+
+  @Test
+  public void completedCallsAreNoLongerInFlight() {
+    SpannerStubPool pool = new SpannerStubPool(this.stubs, ChannelSelection.LEAST_IN_FLIGHT);
+
+    assertThat(pool.call(1, stub -> Mono.just("done")).block()).isEqualTo("done");
+    assertThat(pool.getCallsInFlight(1)).isEqualTo(0);
+  }
+
+  @Test
+  public void resultsArePublishedOnResultScheduler() {
+    Scheduler scheduler = Schedulers.newSingle("results");
+    try {
+      SpannerStubPool pool =
+          new SpannerStubPool(this.stubs, ChannelSelection.ROUND_ROBIN, scheduler, 16);
+
+      assertThat(pool.call(0, stub -> Mono.just("done"))
+          .map(result -> Thread.currentThread().getName())
+          .block())
+          .startsWith("results");
+      assertThat(pool.streamingCall(0, stub -> Flux.just("a", "b"))
+          .map(result -> Thread.currentThread().getName())
+          .collectList()
+          .block())
+          .allMatch(threadName -> threadName.startsWith("results"));
+    } finally {
+      scheduler.dispose();
+    }
+  }
+
+  @Test
+  public void sessionsStayOnTheirChannel() {
+    SpannerStubPool pool = new SpannerStubPool(this.stubs, ChannelSelection.ROUND_ROBIN);
+    Session session = Session.newBuilder().setName("projects/p/sessions/1").build();
+    int unpinnedChannel = pool.channelFor(session);
+    int pinnedChannel = (unpinnedChannel + 1) % CHANNEL_COUNT;
+
+    pool.pin(session, pinnedChannel);
+    assertThat(pool.channelFor(session)).isEqualTo(pinnedChannel);
+
+    pool.unpin(session);
+    assertThat(pool.channelFor(session)).isEqualTo(unpinnedChannel);
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.codecs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.ListValue;
+import com.google.protobuf.NullValue;
+import com.google.protobuf.Value;
+import com.google.protobuf.Value.KindCase;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Test for {@link DefaultCodecs} with additional codecs.
+ */
+public class AdditionalCodecsTest {
+
+  private static final Type STRING_TYPE = Type.newBuilder().setCode(TypeCode.STRING).build();
+
+  private final DefaultCodecs codecs =
+      new DefaultCodecs(Collections.singletonList(new BigDecimalCodec()));
+
+  @Test
+  public void additionalCodecEncodesAndDecodes() {
+    Value value = this.codecs.encode(new BigDecimal("1.50"));
+
+    assertThat(value.getStringValue()).isEqualTo("1.50");
+    assertThat(this.codecs.decode(value, STRING_TYPE, BigDecimal.class))
+        .isEqualTo(new BigDecimal("1.50"));
+    assertThat(this.codecs.decode(value, STRING_TYPE, Number.class))
+        .isEqualTo(new BigDecimal("1.50"));
+  }
+
+  @Test
+  public void additionalCodecTakesPrecedenceOnlyForItsType() {
+    Value value = this.codecs.encode("3");
+
+    assertThat(this.codecs.decode(value, STRING_TYPE, BigDecimal.class))
+        .isEqualTo(new BigDecimal("3"));
+    assertThat(this.codecs.decode(value, STRING_TYPE, Object.class)).isEqualTo("3");
+    assertThat(this.codecs.decode(value, STRING_TYPE, String.class)).isEqualTo("3");
+    assertThat(this.codecs.compile(STRING_TYPE).decode(0, value, Object.class)).isEqualTo("3");
+  }
+
+  @Test
+  public void additionalCodecIsGivenTheColumnType() {
+    Type entriesType = Type.newBuilder().setCode(TypeCode.ARRAY)
+        .setArrayElementType(Type.newBuilder().setCode(TypeCode.STRUCT)
+            .setStructType(StructType.newBuilder()
+                .addFields(Field.newBuilder().setName("key").setType(STRING_TYPE))
+                .addFields(Field.newBuilder().setName("value").setType(STRING_TYPE))))
+        .build();
+    Value value = Value.newBuilder().setListValue(ListValue.newBuilder()
+        .addValues(Value.newBuilder().setListValue(ListValue.newBuilder()
+            .addValues(Value.newBuilder().setStringValue("a"))
+            .addValues(Value.newBuilder().setStringValue("1")))))
+        .build();
+    DefaultCodecs codecs = new DefaultCodecs(Collections.singletonList(new EntriesCodec()));
+
+    assertThat(codecs.decode(value, entriesType, Map.class))
+        .isEqualTo(Collections.singletonMap("a", "1"));
+    assertThat(codecs.compile(entriesType).decode(0, value, Map.class))
+        .isEqualTo(Collections.singletonMap("a", "1"));
+  }
+
+  /**
+   * Decodes arrays of key and value structs, which it recognizes by the fields of the struct.
+   */
+  private static class EntriesCodec implements Codec<Map<String, String>> {
+
+    @Override
+    public boolean canDecode(Type dataType, Class<?> type) {
+      return dataType.getCode() == TypeCode.ARRAY
+          && dataType.getArrayElementType().getStructType().getFieldsCount() == 2
+          && type.isAssignableFrom(Map.class);
+    }
+
+    @Override
+    public boolean canEncode(Object value) {
+      return false;
+    }
+
+    @Override
+    public boolean canEncodeNull(Type type) {
+      return false;
+    }
+
+    @Override
+    public Map<String, String> decode(Value value, Type spannerType,
+        Class<? extends Map<String, String>> type) {
+      Map<String, String> entries = new HashMap<>();
+      for (Value entry : value.getListValue().getValuesList()) {
+        entries.put(entry.getListValue().getValues(0).getStringValue(),
+            entry.getListValue().getValues(1).getStringValue());
+      }
+      return entries;
+    }
+
+    @Override
+    public Value encode(Object value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Value encodeNull() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Class<?> type() {
+      return Map.class;
+    }
+  }
+
+  private static class BigDecimalCodec implements Codec<BigDecimal> {
+
+    @Override
+    public boolean canDecode(Type dataType, Class<?> type) {
+      return dataType.getCode() == TypeCode.STRING && type.isAssignableFrom(BigDecimal.class);
+    }
+
+    @Override
+    public boolean canEncode(Object value) {
+      return value instanceof BigDecimal;
+    }
+
+    @Override
+    public boolean canEncodeNull(Type type) {
+      return type.getCode() == TypeCode.STRING;
+    }
+
+    @Override
+    public BigDecimal decode(Value value, Type spannerType, Class<? extends BigDecimal> type) {
+      return value.getKindCase() == KindCase.NULL_VALUE
+          ? null
+          : new BigDecimal(value.getStringValue());
+    }
+
+    @Override
+    public Value encode(Object value) {
+      return Value.newBuilder().setStringValue(((BigDecimal) value).toPlainString()).build();
+    }
+
+    @Override
+    public Value encodeNull() {
+      return Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
+    }
+
+    @Override
+    public Class<?> type() {
+      return BigDecimal.class;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.codecs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.protobuf.Value;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Test for the {@code BYTES} codecs of {@link DefaultCodecs}.
+ */
+public class BytesCodecTest {
+
+  private static final Type BYTES_TYPE = Type.newBuilder().setCode(TypeCode.BYTES).build();
+
+  private final Codecs codecs = new DefaultCodecs();
+
+  @Test
+  public void bytesAreBase64Encoded() {
+    Value value = this.codecs.encode("ab".getBytes(StandardCharsets.UTF_8));
+
+    assertThat(value.getStringValue()).isEqualTo("YWI=");
+  }
+
+  @Test
+  public void base64IsDecoded() {
+    Value value = Value.newBuilder().setStringValue("YWJj").build();
+
+    assertThat(this.codecs.decode(value, BYTES_TYPE, byte[].class))
+        .isEqualTo("abc".getBytes(StandardCharsets.UTF_8));
+    assertThat(this.codecs.decode(value, BYTES_TYPE, ByteBuffer.class))
+        .isEqualTo(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void byteBufferIsEncodedWithoutConsumingIt() {
+    ByteBuffer buffer = ByteBuffer.wrap("abcd".getBytes(StandardCharsets.UTF_8));
+    buffer.position(1);
+
+    Value value = this.codecs.encode(buffer);
+
+    assertThat(value.getStringValue()).isEqualTo(
+        Base64.getEncoder().encodeToString("bcd".getBytes(StandardCharsets.UTF_8)));
+    assertThat(buffer.position()).isEqualTo(1);
+  }
+
+  @Test
+  public void decodingMatchesJdkDecoder() {
+    Random random = new Random(42);
+    for (int length = 0; length < 64; length++) {
+      byte[] bytes = new byte[length];
+      random.nextBytes(bytes);
+      String base64 = Base64.getEncoder().encodeToString(bytes);
+
+      assertThat(ValueUtils.decodeBase64(base64)).isEqualTo(bytes);
+      assertThat(ValueUtils.decodeBase64(base64.replace("=", ""))).isEqualTo(bytes);
+    }
+  }
+
+  @Test
+  public void invalidBase64IsRejected() {
+    assertThatThrownBy(() -> ValueUtils.decodeBase64("YW*j"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.codecs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.protobuf.NullValue;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import org.junit.Test;
+
+/**
+ * Test for {@link DecodePlan}.
+ */
+public class DecodePlanTest {
+
+  private final DefaultCodecs codecs = new DefaultCodecs();
+
+  private final DecodePlan plan = this.codecs.compile(
+      Type.newBuilder().setCode(TypeCode.STRING).build(),
+      Type.newBuilder().setCode(TypeCode.INT64).build(),
+      Type.newBuilder().setCode(TypeCode.ARRAY)
+          .setArrayElementType(Type.newBuilder().setCode(TypeCode.BOOL)).build());
+
+  @Test
+  public void decodesEachColumnByItsType() {
+    assertThat(this.plan.getColumnCount()).isEqualTo(3);
+    assertThat(this.plan.decode(0, this.codecs.encode("abc"), String.class)).isEqualTo("abc");
+    assertThat(this.plan.decode(1, this.codecs.encode(12L), Long.class)).isEqualTo(12L);
+    assertThat(this.plan.decode(2, this.codecs.encode(new Boolean[] {true, false}),
+        Boolean[].class)).containsExactly(true, false);
+  }
+
+  @Test
+  public void columnCanBeReadAsDifferentTypes() {
+    Value value = this.codecs.encode(12L);
+
+    assertThat(this.plan.decode(1, value, Long.class)).isEqualTo(12L);
+    assertThat(this.plan.decode(1, value, Object.class)).isEqualTo(12L);
+    assertThat(this.plan.decode(1, value, Long.class)).isEqualTo(12L);
+  }
+
+  @Test
+  public void nullValuesAreDecodedToNull() {
+    Value nullValue = Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
+
+    assertThat(this.plan.decode(0, nullValue, String.class)).isNull();
+    assertThat(this.plan.decode(1, nullValue, Long.class)).isNull();
+  }
+
+  @Test
+  public void unsupportedTypeIsRejected() {
+    assertThatThrownBy(() -> this.plan.decode(1, this.codecs.encode(12L), String.class))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Cannot decode value of type");
+  }
+}
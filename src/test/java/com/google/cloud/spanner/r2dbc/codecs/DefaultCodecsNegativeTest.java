@@ -20,6 +20,7 @@ import com.google.protobuf.Value;
 import com.google.spanner.v1.Type;
 import com.google.spanner.v1.TypeCode;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -51,4 +52,33 @@ public class DefaultCodecsNegativeTest {
     Value value = codecs.encode("abc");
     codecs.decode(value, Type.newBuilder().setCode(TypeCode.STRING).build(), Integer.class);
   }
+
+  @Test
+  public void decodeArrayOfOtherElementTypeException() {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("Cannot decode value of type");
+
+    Value value = codecs.encode(new Boolean[] {true});
+    codecs.decode(value, Type.newBuilder().setCode(TypeCode.ARRAY)
+        .setArrayElementType(Type.newBuilder().setCode(TypeCode.BOOL)).build(), Long[].class);
+  }
+
+  @Test
+  public void decodeInvalidDateException() {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("Invalid date: 2019-6-25");
+
+    Value value = codecs.encode("2019-6-25");
+    codecs.decode(value, Type.newBuilder().setCode(TypeCode.DATE).build(), LocalDate.class);
+  }
+
+  @Test
+  public void decodePrimitiveArrayWithNullException() {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("Element 1 of the array is NULL");
+
+    Value value = codecs.encode(new Long[] {1L, null});
+    codecs.decode(value, Type.newBuilder().setCode(TypeCode.ARRAY)
+        .setArrayElementType(Type.newBuilder().setCode(TypeCode.INT64)).build(), long[].class);
+  }
 }
@@ -22,7 +22,11 @@ import com.google.protobuf.Value;
 import com.google.spanner.v1.Type;
 import com.google.spanner.v1.TypeCode;
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.Collection;
 import org.junit.Test;
@@ -71,6 +75,15 @@ public class DefaultCodecsTest {
             Type.newBuilder().setCode(TypeCode.ARRAY)
                 .setArrayElementType(
                     Type.newBuilder().setCode(TypeCode.TIMESTAMP).build()).build()},
+        {new long[]{2L, -1003L, Long.MAX_VALUE}, long[].class,
+            Type.newBuilder().setCode(TypeCode.ARRAY)
+                .setArrayElementType(Type.newBuilder().setCode(TypeCode.INT64).build()).build()},
+        {new double[]{2.5d, Double.NEGATIVE_INFINITY, Double.NaN}, double[].class,
+            Type.newBuilder().setCode(TypeCode.ARRAY)
+                .setArrayElementType(Type.newBuilder().setCode(TypeCode.FLOAT64).build()).build()},
+        {new boolean[]{true, false}, boolean[].class,
+            Type.newBuilder().setCode(TypeCode.ARRAY)
+                .setArrayElementType(Type.newBuilder().setCode(TypeCode.BOOL).build()).build()},
 
         {true, Boolean.class, Type.newBuilder().setCode(TypeCode.BOOL).build()},
         {false, Boolean.class, Type.newBuilder().setCode(TypeCode.BOOL).build()},
@@ -82,6 +95,12 @@ public class DefaultCodecsTest {
         {Timestamp.valueOf("2013-08-04 12:00:01.029074"), Timestamp.class,
             Type.newBuilder().setCode(TypeCode.TIMESTAMP).build()},
         {"abc", String.class, Type.newBuilder().setCode(TypeCode.STRING).build()},
+        {Instant.parse("2013-08-04T12:00:01.029074Z"), Instant.class,
+            Type.newBuilder().setCode(TypeCode.TIMESTAMP).build()},
+        {OffsetDateTime.of(1013, 7, 2, 22, 3, 5, 26714000, ZoneOffset.UTC), OffsetDateTime.class,
+            Type.newBuilder().setCode(TypeCode.TIMESTAMP).build()},
+        {LocalDateTime.of(2019, 6, 25, 14, 3, 1), LocalDateTime.class,
+            Type.newBuilder().setCode(TypeCode.TIMESTAMP).build()},
     });
   }
 
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.codecs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Test for {@link TimestampFormat}.
+ */
+public class TimestampFormatTest {
+
+  @Test
+  public void parsesFractionsOfAnyLength() {
+    assertParsed("2019-06-25T14:03:01Z", "2019-06-25T14:03:01Z");
+    assertParsed("2019-06-25T14:03:01.5Z", "2019-06-25T14:03:01.500Z");
+    assertParsed("2019-06-25T14:03:01.021126Z", "2019-06-25T14:03:01.021126Z");
+    assertParsed("0001-01-01T00:00:00.000000001Z", "0001-01-01T00:00:00.000000001Z");
+    assertParsed("9999-12-31t23:59:59.999999999z", "9999-12-31T23:59:59.999999999Z");
+    assertParsed("2000-02-29T12:00:00Z", "2000-02-29T12:00:00Z");
+  }
+
+  @Test
+  public void rejectsOtherFormats() {
+    assertThat(TimestampFormat.isUtcTimestamp("2019-06-25T14:03:01")).isFalse();
+    assertThat(TimestampFormat.isUtcTimestamp("2019-06-25T14:03:01+01:00")).isFalse();
+    assertThat(TimestampFormat.isUtcTimestamp("2019-06-25T14:03:01.Z")).isFalse();
+    assertThat(TimestampFormat.isUtcTimestamp("2019-06-25T14:03:01.0123456789Z")).isFalse();
+    assertThat(TimestampFormat.isUtcTimestamp("2019-6-25T14:03:01Z")).isFalse();
+    assertThat(TimestampFormat.isUtcTimestamp("2019-13-25T14:03:01Z")).isFalse();
+    assertThat(TimestampFormat.isUtcTimestamp("2019-02-29T14:03:01Z")).isFalse();
+    assertThat(TimestampFormat.isUtcTimestamp("2019-06-25T24:03:01Z")).isFalse();
+  }
+
+  @Test
+  public void formatsLikeInstant() {
+    assertThat(TimestampFormat.format(0, 0)).isEqualTo("1970-01-01T00:00:00Z");
+    assertThat(TimestampFormat.format(1561471381L, 21126000))
+        .isEqualTo("2019-06-25T14:03:01.021126Z");
+    assertThat(TimestampFormat.format(-1, 999999999))
+        .isEqualTo("1969-12-31T23:59:59.999999999Z");
+
+    Random random = new Random(42);
+    long min = Instant.parse("0001-01-01T00:00:00Z").getEpochSecond();
+    long max = Instant.parse("9999-12-31T23:59:59Z").getEpochSecond();
+    for (int i = 0; i < 10000; i++) {
+      long epochSecond = min + (long) (random.nextDouble() * (max - min));
+      int nano = random.nextInt(3) == 0 ? 0 : random.nextInt(1_000_000_000);
+      String formatted = TimestampFormat.format(epochSecond, nano);
+
+      assertThat(formatted).isEqualTo(Instant.ofEpochSecond(epochSecond, nano).toString());
+      assertThat(TimestampFormat.isUtcTimestamp(formatted)).isTrue();
+      assertThat(TimestampFormat.parseEpochSecond(formatted)).isEqualTo(epochSecond);
+      assertThat(TimestampFormat.parseNano(formatted)).isEqualTo(nano);
+    }
+  }
+
+  @Test
+  public void epochDaysMatchLocalDate() {
+    for (LocalDate date = LocalDate.of(1, 1, 1); date.getYear() < 10000;
+        date = date.plusDays(997)) {
+      assertThat(TimestampFormat.toEpochDay(
+          date.getYear(), date.getMonthValue(), date.getDayOfMonth()))
+          .isEqualTo(date.toEpochDay());
+    }
+  }
+
+  private static void assertParsed(String text, String expected) {
+    Instant instant = Instant.parse(expected);
+
+    assertThat(TimestampFormat.isUtcTimestamp(text)).isTrue();
+    assertThat(TimestampFormat.parseEpochSecond(text)).isEqualTo(instant.getEpochSecond());
+    assertThat(TimestampFormat.parseNano(text)).isEqualTo(instant.getNano());
+  }
+}
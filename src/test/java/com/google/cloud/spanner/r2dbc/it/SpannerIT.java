@@ -62,14 +62,17 @@ public class SpannerIT {
 
   private static final String TEST_DATABASE = "testdb";
 
-  private static final ConnectionFactory connectionFactory =
-      ConnectionFactories.get(ConnectionFactoryOptions.builder()
+  private static final ConnectionFactoryOptions CONNECTION_FACTORY_OPTIONS =
+      ConnectionFactoryOptions.builder()
           // TODO: consider whether to bring autodiscovery of project ID
           .option(Option.valueOf("project"), ServiceOptions.getDefaultProjectId())
           .option(DRIVER, DRIVER_NAME)
           .option(INSTANCE, TEST_INSTANCE)
           .option(DATABASE, TEST_DATABASE)
-          .build());
+          .build();
+
+  private static final ConnectionFactory connectionFactory =
+      ConnectionFactories.get(CONNECTION_FACTORY_OPTIONS);
 
   private SpannerStub spanner;
 
@@ -94,11 +97,12 @@ public class SpannerIT {
 
   @Test
   public void testSessionManagement() {
+    // use a dedicated factory, since closing it shuts down its session pool
+    ConnectionFactory sessionTestFactory = ConnectionFactories.get(CONNECTION_FACTORY_OPTIONS);
 
+    assertThat(sessionTestFactory).isInstanceOf(SpannerConnectionFactory.class);
 
-    assertThat(this.connectionFactory).isInstanceOf(SpannerConnectionFactory.class);
-
-    Mono<Connection> connection = (Mono<Connection>) this.connectionFactory.create();
+    Mono<Connection> connection = (Mono<Connection>) sessionTestFactory.create();
     SpannerConnection spannerConnection = (SpannerConnection)connection.block();
     String activeSessionName = spannerConnection.getSession().getName();
 
@@ -107,6 +111,12 @@ public class SpannerIT {
 
     Mono.from(spannerConnection.close()).block();
 
+    // closing the connection returns the session to the pool rather than deleting it
+    activeSessions = getSessionNames();
+    assertThat(activeSessions).contains(activeSessionName);
+
+    ((SpannerConnectionFactory) sessionTestFactory).close().block();
+
     activeSessions = getSessionNames();
     assertThat(activeSessions).doesNotContain(activeSessionName);
   }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.r2dbc.result;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import org.junit.Test;
+
+/**
+ * Test for {@link ChunkedValue}.
+ */
+public class ChunkedValueTest {
+
+  @Test
+  public void unchunkedValueIsReturnedAsIs() {
+    Value value = stringValue("abc");
+
+    assertThat(new ChunkedValue(value).build()).isSameAs(value);
+  }
+
+  @Test
+  public void stringChunksAreConcatenated() {
+    ChunkedValue chunkedValue = new ChunkedValue(stringValue("a"));
+    for (int i = 0; i < 1000; i++) {
+      chunkedValue.append(stringValue("b"));
+    }
+
+    Value value = chunkedValue.build();
+    assertThat(value.getStringValue()).hasSize(1001).startsWith("ab").endsWith("bb");
+  }
+
+  @Test
+  public void lastListElementIsMergedWithNextChunk() {
+    ChunkedValue chunkedValue = new ChunkedValue(listValue(numberValue(1), stringValue("ab")));
+    chunkedValue.append(listValue(stringValue("c"), numberValue(2)));
+    chunkedValue.append(listValue(numberValue(3)));
+
+    assertThat(chunkedValue.build())
+        .isEqualTo(listValue(numberValue(1), stringValue("abc"), numberValue(2), numberValue(3)));
+  }
+
+  @Test
+  public void nestedListsAreMerged() {
+    ChunkedValue chunkedValue =
+        new ChunkedValue(listValue(listValue(stringValue("a")), listValue(stringValue("b"))));
+    chunkedValue.append(listValue(listValue(stringValue("c"), stringValue("d"))));
+    chunkedValue.append(listValue(listValue(stringValue("e"))));
+
+    assertThat(chunkedValue.build()).isEqualTo(listValue(
+        listValue(stringValue("a")),
+        listValue(stringValue("bc"), stringValue("de"))));
+  }
+
+  @Test
+  public void unmergeableElementsAreAppended() {
+    ChunkedValue chunkedValue = new ChunkedValue(listValue(numberValue(1)));
+    chunkedValue.append(listValue(numberValue(2)));
+    chunkedValue.append(listValue());
+
+    assertThat(chunkedValue.build()).isEqualTo(listValue(numberValue(1), numberValue(2)));
+  }
+
+  private static Value stringValue(String value) {
+    return Value.newBuilder().setStringValue(value).build();
+  }
+
+  private static Value numberValue(double value) {
+    return Value.newBuilder().setNumberValue(value).build();
+  }
+
+  private static Value listValue(Value... values) {
+    ListValue.Builder listValue = ListValue.newBuilder();
+    for (Value value : values) {
+      listValue.addValues(value);
+    }
+    return Value.newBuilder().setListValue(listValue).build();
+  }
+}
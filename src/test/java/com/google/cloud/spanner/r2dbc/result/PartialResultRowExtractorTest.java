@@ -20,7 +20,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.cloud.spanner.r2dbc.SpannerColumnMetadata;
 import com.google.cloud.spanner.r2dbc.SpannerRow;
-import com.google.cloud.spanner.r2dbc.util.ConvertingFluxAdapter;
 import com.google.protobuf.ListValue;
 import com.google.protobuf.Value;
 import com.google.spanner.v1.PartialResultSet;
@@ -184,10 +183,33 @@ public class PartialResultRowExtractorTest {
     verifyRows(inputs);
   }
 
+  @Test
+  public void partialResultSetWithoutValuesTest() {
+    PartialResultSet p1 = PartialResultSet.newBuilder().setMetadata(
+        this.resultSetMetadata
+    ).setChunkedValue(false)
+        .addValues(this.a1)
+        .addValues(this.a2)
+        .build();
+
+    PartialResultSet p2 = PartialResultSet.newBuilder().build();
+
+    PartialResultSet p3 = PartialResultSet.newBuilder()
+        .setChunkedValue(false)
+        .addValues(this.a3)
+        .addValues(this.b1)
+        .addValues(this.b2)
+        .addValues(this.b3)
+        .build();
+
+    Flux<PartialResultSet> inputs = Flux.just(p1, p2, p3);
+
+    verifyRows(inputs);
+  }
+
   private void verifyRows(Flux<PartialResultSet> inputs) {
-    List<SpannerRow> results = Flux.<SpannerRow>create(
-        sink -> inputs
-            .subscribe(new ConvertingFluxAdapter<>(sink, new PartialResultRowExtractor())))
+    List<SpannerRow> results = inputs
+        .flatMapIterable(new PartialResultRowExtractor())
         .collectList()
         .block();
 
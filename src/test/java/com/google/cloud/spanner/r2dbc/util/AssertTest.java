@@ -40,4 +40,17 @@ public class AssertTest {
     assertThat(value).isEqualTo("definitely not null");
   }
 
+  @Test
+  public void assertIsTrueThrowsExceptionWhenFalse() {
+    assertThatThrownBy(() -> {
+      Assert.isTrue(false, "oh no");
+    }).isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("oh no");
+  }
+
+  @Test
+  public void assertIsTrueNoopWhenTrue() {
+    Assert.isTrue(true, "oh no");
+  }
+
 }
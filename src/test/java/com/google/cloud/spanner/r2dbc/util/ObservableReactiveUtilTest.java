@@ -18,9 +18,14 @@ package com.google.cloud.spanner.r2dbc.util;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import reactor.core.publisher.Mono;
@@ -59,6 +64,17 @@ public class ObservableReactiveUtilTest {
         .hasMessage("Unary gRPC call completed without yielding a value or an error");
   }
 
+  @Test
+  public void cancellingUnaryCallCancelsRemoteCall() {
+    ClientCallStreamObserver<Object> requestStream = mock(ClientCallStreamObserver.class);
+    Mono<Integer> mono = ObservableReactiveUtil.unaryCall(observer ->
+        ((ClientResponseObserver<Object, Integer>) observer).beforeStart(requestStream));
+
+    mono.subscribe().dispose();
+
+    verify(requestStream).cancel(any(), any());
+  }
+
   @Test
   public void unaryCallRetries() {
     StatusRuntimeException retryableError = new StatusRuntimeException(
@@ -19,6 +19,7 @@ package com.google.cloud.spanner.r2dbc.util;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.protobuf.Duration;
+import com.google.rpc.ResourceInfo;
 import com.google.rpc.RetryInfo;
 import io.grpc.Metadata;
 import io.grpc.Status;
@@ -62,4 +63,55 @@ public class SpannerExceptionUtilTest {
 
     assertThat(SpannerExceptionUtil.isRetryable(retryableException)).isTrue();
   }
+
+  @Test
+  public void testResumableException() {
+    assertThat(SpannerExceptionUtil.isResumable(
+        new StatusRuntimeException(Status.UNAVAILABLE))).isTrue();
+    assertThat(SpannerExceptionUtil.isResumable(new StatusRuntimeException(
+        Status.INTERNAL.withDescription("Received unexpected EOS on DATA frame from server"))))
+        .isTrue();
+    assertThat(SpannerExceptionUtil.isResumable(
+        new StatusRuntimeException(Status.INVALID_ARGUMENT))).isFalse();
+  }
+
+  @Test
+  public void testSessionNotFoundFromResourceInfo() {
+    ResourceInfo resourceInfo = ResourceInfo.newBuilder()
+        .setResourceType("type.googleapis.com/google.spanner.v1.Session")
+        .setResourceName("projects/p/instances/i/databases/d/sessions/s")
+        .build();
+
+    Metadata errorMetadata = new Metadata();
+    errorMetadata.put(ProtoUtils.keyForProto(ResourceInfo.getDefaultInstance()), resourceInfo);
+
+    assertThat(SpannerExceptionUtil.isSessionNotFound(
+        new StatusRuntimeException(Status.NOT_FOUND, errorMetadata))).isTrue();
+  }
+
+  @Test
+  public void testSessionNotFoundFromMessage() {
+    assertThat(SpannerExceptionUtil.isSessionNotFound(new StatusRuntimeException(
+        Status.NOT_FOUND.withDescription("Session not found: projects/p/sessions/s"))))
+        .isTrue();
+  }
+
+  @Test
+  public void testOtherNotFoundIsNotSessionNotFound() {
+    ResourceInfo resourceInfo = ResourceInfo.newBuilder()
+        .setResourceType("type.googleapis.com/google.spanner.admin.database.v1.Database")
+        .build();
+
+    Metadata errorMetadata = new Metadata();
+    errorMetadata.put(ProtoUtils.keyForProto(ResourceInfo.getDefaultInstance()), resourceInfo);
+
+    assertThat(SpannerExceptionUtil.isSessionNotFound(
+        new StatusRuntimeException(Status.NOT_FOUND, errorMetadata))).isFalse();
+    assertThat(SpannerExceptionUtil.isSessionNotFound(
+        new StatusRuntimeException(Status.NOT_FOUND.withDescription("Table not found"))))
+        .isFalse();
+    assertThat(SpannerExceptionUtil.isSessionNotFound(
+        new StatusRuntimeException(Status.ABORTED.withDescription("Session not found"))))
+        .isFalse();
+  }
 }